@@ -1,24 +1,58 @@
 package ch.zhaw.prog2.ticketing.model;
 
+import ch.zhaw.prog2.ticketing.util.BackpressurePolicy;
 import ch.zhaw.prog2.ticketing.util.Observable;
 import ch.zhaw.prog2.ticketing.util.Observer;
+import ch.zhaw.prog2.ticketing.util.ObserverDispatcher;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
 import java.util.stream.Stream;
 
 /**
  * The auditorium has a fixed seat arrangement and can host
  * different shows.
+ * <p>
+ * Booking and canceling tickets is thread-safe and does not lock: a seat of a show is claimed
+ * with a single compare-and-set, so bookings never block each other.
  */
 public class Auditorium implements Observable<Show> {
     private final String name;
     private final Set<Entrance> entrances = new HashSet<>();
 
-    private final Set<Seat> seats;
+    /**
+     * Seats of the auditorium, stored compactly with about one bit per seat.
+     */
+    private final SeatLayout seatLayout;
+    private final GuestRegistry guests = new GuestRegistry();
+
+    /**
+     * Registered shows indexed by their start. The time ranges of the shows do not overlap,
+     * so a conflict with a new show is found by looking at its neighbours in O(log n).
+     */
+    private final NavigableMap<Instant, Show> showsByStart = new ConcurrentSkipListMap<>();
+    private final Set<Show> shows = new ScheduledShows();
+
+    /**
+     * Registered tickets, stored in one partition per show and indexed by seat within the partition.
+     * Allows to look up, insert and remove the ticket of a seat in constant time.
+     */
+    private final Map<Show, ShowTickets> ticketsByShow = new ConcurrentHashMap<>();
+    private final AtomicInteger registeredTicketCount = new AtomicInteger();
 
-    private final Set<Show> shows = new HashSet<>();
-    protected final Set<Ticket> registeredTickets = new HashSet<>();
+    /**
+     * Read-only view of all registered tickets of all shows.
+     */
+    protected final Set<Ticket> registeredTickets = new RegisteredTickets();
 
     /**
      * Each auditorium object has a name and at least one entrance.
@@ -29,7 +63,7 @@ public class Auditorium implements Observable<Show> {
     public Auditorium(String name) {
         Objects.requireNonNull(name);
         this.name = name;
-        seats = new HashSet<>();
+        seatLayout = SeatLayout.of(Set.of());
         entrances.add(new Entrance());
     }
 
@@ -43,7 +77,21 @@ public class Auditorium implements Observable<Show> {
     public Auditorium(String name, Set<Seat> seatMap) {
         Objects.requireNonNull(name);
         this.name = name;
-        seats = seatMap;
+        seatLayout = SeatLayout.of(seatMap);
+        entrances.add(new Entrance());
+    }
+
+    /**
+     * Each auditorium object has a name and at least one entrance.
+     * This constructors initializes the seats from a layout, e.g. of a large venue.
+     *
+     * @param name The name of the auditorium, e.g., "Hallenstadion"
+     * @param seatLayout The arrangement of all available seats, see {@link VenueGenerator}
+     */
+    public Auditorium(String name, SeatLayout seatLayout) {
+        Objects.requireNonNull(name);
+        this.name = name;
+        this.seatLayout = Objects.requireNonNull(seatLayout);
         entrances.add(new Entrance());
     }
 
@@ -53,41 +101,117 @@ public class Auditorium implements Observable<Show> {
      * show and seat in registeredTickets, throw an exception.
      *
      * @param ticket The ticket to be checked
-     * @throws InvalidTicketException is thrown if a ticket for the same show and seat has already been registered.
+     * @throws InvalidTicketException is thrown if a ticket for the same show and seat has already been registered,
+     * or if the ticket is not valid for this auditorium, see {@link #tryBookTicket(Ticket)}.
      */
     public void bookTicket(Ticket ticket) throws InvalidTicketException {
+        BookingResult result = tryBookTicket(ticket);
+        if (!result.isBooked()) {
+            throw new InvalidTicketException(result.getDescription());
+        }
+    }
+
+    /**
+     * Try to register a ticket without throwing an exception if it can not be registered.
+     *
+     * @param ticket The ticket to be registered
+     * @return {@link BookingResult#BOOKED} if the ticket has been registered,
+     * {@link BookingResult#SEAT_TAKEN} if a ticket for the same show and seat has already been registered or
+     * {@link BookingResult#INVALID_SEAT} if the seat does not exist in this auditorium.
+     */
+    public BookingResult tryBookTicket(Ticket ticket) {
         Objects.requireNonNull(ticket);
-        if (isTicketRegistered(ticket)) {
-            throw new InvalidTicketException();
-        } else {
-            registeredTickets.add(ticket);
-            notifyObserver(ticket.getShow());
+        if (!hasSeat(ticket.getSeat())) {
+            return BookingResult.INVALID_SEAT;
+        }
+        ShowTickets ticketsOfShow = ticketsByShow.computeIfAbsent(ticket.getShow(), show -> new ShowTickets(seatLayout));
+        if (!ticketsOfShow.add(ticket)) {
+            return BookingResult.SEAT_TAKEN;
+        }
+        registeredTicketCount.incrementAndGet();
+        notifyObserver(ticket.getShow());
+        notifyTicketEvent(TicketEvent.Type.BOOKED, ticket);
+        return BookingResult.BOOKED;
+    }
+
+    /**
+     * Books tickets for all the given seats of a show at once, e.g. for a group booking.
+     * Either all seats are booked or none: if a seat is already taken, requested twice or does not exist,
+     * no ticket is registered. The seats are validated before any ticket is created and
+     * the observers of the show are notified once for the whole batch.
+     *
+     * @param show  the show to book the seats for
+     * @param seats the desired seats
+     * @param owner the owner of the tickets
+     * @return the registered tickets in the order of the given seats, or an empty Optional if the seats could not be booked
+     */
+    public Optional<List<Ticket>> bookAll(Show show, Collection<Seat> seats, Guest owner) {
+        Objects.requireNonNull(owner);
+        if (show.getAuditorium() != this) {
+            return Optional.empty();
+        }
+        for (Seat seat : seats) {
+            if (!hasSeat(seat)) {
+                return Optional.empty();
+            }
+        }
+        ShowTickets ticketsOfShow = ticketsByShow.computeIfAbsent(show, s -> new ShowTickets(seatLayout));
+        Set<Seat> requestedSeats = new HashSet<>();
+        for (Seat seat : seats) {
+            if (!requestedSeats.add(seat) || !ticketsOfShow.isFree(seat)) {
+                return Optional.empty();
+            }
+        }
+
+        List<Ticket> tickets = new ArrayList<>(seats.size());
+        for (Seat seat : seats) {
+            Ticket ticket = new Ticket(show, seat, owner);
+            if (!ticketsOfShow.add(ticket)) {
+                // claimed concurrently since the validation: release the seats of this batch again
+                tickets.forEach(ticketsOfShow::remove);
+                return Optional.empty();
+            }
+            tickets.add(ticket);
+        }
+        if (!tickets.isEmpty()) {
+            registeredTicketCount.addAndGet(tickets.size());
+            notifyObserver(show);
+            tickets.forEach(ticket -> notifyTicketEvent(TicketEvent.Type.BOOKED, ticket));
         }
+        return Optional.of(tickets);
     }
 
     /**
      * Un-books a ticket if it has already been registered. Does nothing otherwise.
+     * <p>
+     * Only the registered ticket instance itself releases its seat. Another ticket for the same show and seat,
+     * e.g. one which has not been booked, is not registered and cancelling it does nothing,
+     * see {@link #isTicketRegistered(Ticket)}.
      *
      * @param ticket
      */
     public void cancelTicket(Ticket ticket) {
         Objects.requireNonNull(ticket);
-        Optional<Ticket> ticketPackage = findRegisteredTicket(ticket.getShow(), ticket.getSeat());
-        if (ticketPackage.isPresent()) {
-            registeredTickets.remove(ticketPackage.get());
+        ShowTickets ticketsOfShow = ticketsByShow.get(Objects.requireNonNull(ticket.getShow()));
+        if (ticketsOfShow != null && ticketsOfShow.remove(ticket)) {
+            registeredTicketCount.decrementAndGet();
             notifyObserver(ticket.getShow());
+            notifyTicketEvent(TicketEvent.Type.CANCELLED, ticket);
         }
     }
 
     /**
      * Check if a ticket has already been registered
+     * <p>
+     * Tickets are matched by identity: a ticket for an occupied seat is only registered
+     * if it is the ticket which has been booked for this seat.
      *
      * @param ticket
      * @return
      */
     public boolean isTicketRegistered(Ticket ticket) {
         Objects.requireNonNull(ticket);
-        return findRegisteredTicket(ticket.getShow(), ticket.getSeat()).isPresent();
+        return findRegisteredTicket(ticket.getShow(), ticket.getSeat()).orElse(null) == ticket;
     }
 
     /**
@@ -100,12 +224,8 @@ public class Auditorium implements Observable<Show> {
     private Optional<Ticket> findRegisteredTicket(Show show, Seat seat) {
         Objects.requireNonNull(show);
         Objects.requireNonNull(seat);
-        for (Ticket registeredTicket : registeredTickets) {
-            if (registeredTicket.getShow().equals(show) && registeredTicket.getSeat().equals(seat)) {
-                return Optional.of(registeredTicket);
-            }
-        }
-        return Optional.empty();
+        ShowTickets ticketsOfShow = ticketsByShow.get(show);
+        return ticketsOfShow == null ? Optional.empty() : Optional.ofNullable(ticketsOfShow.get(seat));
     }
 
     public Set<Entrance> getEntrances() {
@@ -123,31 +243,126 @@ public class Auditorium implements Observable<Show> {
      *
      * @param show {@link Show} to be registered, must not be null.
      * @throws AuditoriumAlreadyOccupiedException if there is already a show booked at the same date and time
+     * or a show whose time range overlaps with the time range of the given show, see {@link Show#getDuration()}
      */
     public void bookAuditoriumFor(Show show) throws AuditoriumAlreadyOccupiedException {
         Objects.requireNonNull(show, "null values not allowed for show");
-        ZonedDateTime newDateTime = show.getDateTime();
-        Optional<Show> conflictingShow = shows.stream()
-                .filter(bookedShow -> newDateTime.isEqual(bookedShow.getDateTime()))
-                .filter(bookedShow -> !bookedShow.equals(show))
-                .findAny();
-        if (conflictingShow.isPresent()) {
-            throw new AuditoriumAlreadyOccupiedException(this, conflictingShow.get());
+        Instant start = show.getDateTime().toInstant();
+        synchronized (showsByStart) {
+            Optional<Show> conflictingShow = findConflictingShow(show, start, endOf(show));
+            if (conflictingShow.isPresent()) {
+                throw new AuditoriumAlreadyOccupiedException(this, conflictingShow.get());
+            }
+            showsByStart.putIfAbsent(start, show);
+        }
+    }
+
+    /**
+     * Only the show starting last before or at the given start and the first show starting after it can overlap,
+     * because the registered shows do not overlap each other.
+     */
+    private Optional<Show> findConflictingShow(Show show, Instant start, Instant end) {
+        Map.Entry<Instant, Show> previous = showsByStart.floorEntry(start);
+        if (previous != null && !previous.getValue().equals(show)
+                && (previous.getKey().equals(start) || endOf(previous.getValue()).isAfter(start))) {
+            return Optional.of(previous.getValue());
+        }
+        Map.Entry<Instant, Show> next = showsByStart.higherEntry(start);
+        if (next != null && next.getKey().isBefore(end)) {
+            return Optional.of(next.getValue());
         }
-        shows.add(show);
+        return Optional.empty();
+    }
+
+    private static Instant endOf(Show show) {
+        return show.getDateTime().toInstant().plus(Objects.requireNonNullElse(show.getDuration(), Duration.ZERO));
     }
 
+    /**
+     * @return all registered shows, iterated in the order of their start
+     */
     public Set<Show> getShows () {
         return Collections.unmodifiableSet(shows);
     }
 
+    /**
+     * Get the shows starting within the given time range.
+     *
+     * @param from start of the range (inclusive), must not be null
+     * @param to   end of the range (exclusive), must not be null
+     * @return the shows ordered by their start, never null
+     */
+    public Stream<Show> getShowsBetween(ZonedDateTime from, ZonedDateTime to) {
+        Objects.requireNonNull(from);
+        Objects.requireNonNull(to);
+        Instant start = from.toInstant();
+        Instant end = to.toInstant();
+        if (!start.isBefore(end)) {
+            return Stream.empty();
+        }
+        return showsByStart.subMap(start, end).values().stream();
+    }
+
+    /**
+     * Get the next shows starting at or after the given time.
+     *
+     * @param from  earliest start, must not be null
+     * @param count maximum number of shows, must be >= 0
+     * @return at most count shows ordered by their start, never null
+     */
+    public Stream<Show> getNextShows(ZonedDateTime from, int count) {
+        Objects.requireNonNull(from);
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be >= 0");
+        }
+        return showsByStart.tailMap(from.toInstant()).values().stream().limit(count);
+    }
+
+    /**
+     * Get the shows starting on the given day.
+     *
+     * @param date the day, must not be null
+     * @param zone the time zone the day is in, must not be null
+     * @return the shows ordered by their start, never null
+     */
+    public Stream<Show> getShowsOn(LocalDate date, ZoneId zone) {
+        Objects.requireNonNull(date);
+        Objects.requireNonNull(zone);
+        return getShowsBetween(date.atStartOfDay(zone), date.plusDays(1).atStartOfDay(zone));
+    }
+
+    /**
+     * @return the shows starting today in the default time zone, ordered by their start
+     */
+    public Stream<Show> getShowsToday() {
+        ZoneId zone = ZoneId.systemDefault();
+        return getShowsOn(LocalDate.now(zone), zone);
+    }
+
 
     public Set<Ticket> getRegisteredTickets() {
         return Collections.unmodifiableSet(registeredTickets);
     }
 
+    /**
+     * Checks if the given {@link Seat} exists in this auditorium.
+     * An auditorium without seat arrangement accepts every seat.
+     * The check is a lookup in the {@link SeatLayout} in constant time and does not allocate,
+     * so invalid requests are cheap to reject before any ticket is created or registered.
+     *
+     * @param seat must not be null
+     * @return true if tickets can be booked for this seat
+     */
+    public boolean hasSeat(Seat seat) {
+        Objects.requireNonNull(seat);
+        return seatLayout.size() == 0 || seatLayout.contains(seat);
+    }
+
+    /**
+     * @return the seats of this auditorium ordered by row and column
+     */
     public Stream<Seat> getSeats() {
-        return seats.stream();
+        return seatLayout.seats();
     }
 
     /**
@@ -158,7 +373,165 @@ public class Auditorium implements Observable<Show> {
      */
     public Stream<Ticket> getRegisteredTicketsFor(Show show) {
         Objects.requireNonNull(show);
-        return registeredTickets.stream().filter(ticket -> Objects.equals(ticket.getShow(), show));
+        ShowTickets ticketsOfShow = ticketsByShow.get(show);
+        return ticketsOfShow == null ? Stream.empty() : ticketsOfShow.stream();
+    }
+
+    /**
+     * Get the number of registered {@link Ticket}s of the given {@link Show} in constant time.
+     *
+     * @param show must not be null
+     * @return number of tickets registered for this show, >= 0
+     */
+    public int ticketCount(Show show) {
+        Objects.requireNonNull(show);
+        ShowTickets ticketsOfShow = ticketsByShow.get(show);
+        return ticketsOfShow == null ? 0 : ticketsOfShow.size();
+    }
+
+    /**
+     * Checks if the given {@link Seat} is still available for the given {@link Show}.
+     *
+     * @param show must not be null
+     * @param seat must not be null
+     * @return true if no ticket is registered for this show and seat
+     */
+    public boolean isSeatFree(Show show, Seat seat) {
+        Objects.requireNonNull(show);
+        Objects.requireNonNull(seat);
+        ShowTickets ticketsOfShow = ticketsByShow.get(show);
+        return ticketsOfShow == null || ticketsOfShow.isFree(seat);
+    }
+
+    /**
+     * Get the number of seats of this auditorium which are still available for the given {@link Show}.
+     *
+     * @param show must not be null
+     * @return number of free seats, >= 0
+     */
+    public int freeSeatCount(Show show) {
+        Objects.requireNonNull(show);
+        ShowTickets ticketsOfShow = ticketsByShow.get(show);
+        return ticketsOfShow == null ? seatLayout.size() : ticketsOfShow.freeSeatCount();
+    }
+
+    /**
+     * Get the seats of this auditorium which are still available for the given {@link Show}.
+     *
+     * @param show must not be null
+     * @return the free seats ordered by row and column, never null
+     */
+    public Stream<Seat> getFreeSeats(Show show) {
+        Objects.requireNonNull(show);
+        ShowTickets ticketsOfShow = ticketsByShow.get(show);
+        return seatLayout.seatsOf(ticketsOfShow == null ? seatLayout.getSeatMask() : ticketsOfShow.freeSeats());
+    }
+
+    /**
+     * Counts the registered {@link Ticket}s of the given {@link Show} per owner.
+     *
+     * @param show must not be null
+     * @return number of tickets indexed by {@link Guest#getId()}, up to the highest id of an owner, never null
+     */
+    public int[] ticketCountPerGuest(Show show) {
+        return sumPerGuest(show, ticket -> 1);
+    }
+
+    /**
+     * Sums up the prices of the registered {@link Ticket}s of the given {@link Show} per owner.
+     *
+     * @param show must not be null
+     * @return revenue indexed by {@link Guest#getId()}, up to the highest id of an owner, never null
+     */
+    public int[] revenuePerGuest(Show show) {
+        return sumPerGuest(show, Ticket::getPrice);
+    }
+
+    private int[] sumPerGuest(Show show, ToIntFunction<Ticket> value) {
+        // ids are dense per auditorium, the array is at most as long as the guests of this auditorium
+        int[] sums = new int[0];
+        int maxGuestId = -1;
+        for (Iterator<Ticket> tickets = getRegisteredTicketsFor(show).iterator(); tickets.hasNext(); ) {
+            Ticket ticket = tickets.next();
+            int guestId = guests.idOf(guests.intern(ticket.getOwner()));
+            if (guestId < 0) {
+                continue;
+            }
+            if (guestId >= sums.length) {
+                sums = Arrays.copyOf(sums, Math.max(guestId + 1, sums.length * 2));
+            }
+            sums[guestId] += value.applyAsInt(ticket);
+            maxGuestId = Math.max(maxGuestId, guestId);
+        }
+        return sums.length == maxGuestId + 1 ? sums : Arrays.copyOf(sums, maxGuestId + 1);
+    }
+
+    /**
+     * Get a snapshot of the occupied seats of the given {@link Show} as seat indices of the layout.
+     *
+     * @param show must not be null
+     * @return new bit set, one bit per occupied seat, see {@link #getSeatLayout()}
+     */
+    BitSet occupiedSeatIndices(Show show) {
+        Objects.requireNonNull(show);
+        ShowTickets ticketsOfShow = ticketsByShow.get(show);
+        return ticketsOfShow == null ? new BitSet() : ticketsOfShow.occupiedSeats();
+    }
+
+    SeatLayout getSeatLayout() {
+        return seatLayout;
+    }
+
+    /**
+     * @return the registry of the guests owning tickets of this auditorium, never null
+     */
+    public GuestRegistry getGuestRegistry() {
+        return guests;
+    }
+
+    /**
+     * Read-only set view over the registered shows, ordered by their start.
+     */
+    private class ScheduledShows extends AbstractSet<Show> {
+        @Override
+        public Iterator<Show> iterator() {
+            return showsByStart.values().iterator();
+        }
+
+        @Override
+        public int size() {
+            return showsByStart.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Show show && show.equals(showsByStart.get(show.getDateTime().toInstant()));
+        }
+    }
+
+    /**
+     * Read-only set view over the ticket partitions of all shows.
+     */
+    private class RegisteredTickets extends AbstractSet<Ticket> {
+        @Override
+        public Iterator<Ticket> iterator() {
+            return stream().iterator();
+        }
+
+        @Override
+        public Stream<Ticket> stream() {
+            return ticketsByShow.values().stream().flatMap(ShowTickets::stream);
+        }
+
+        @Override
+        public int size() {
+            return registeredTicketCount.get();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Ticket ticket && isTicketRegistered(ticket);
+        }
     }
 
     /*
@@ -166,18 +539,57 @@ public class Auditorium implements Observable<Show> {
      */
 
     /**
-     * Set of registered Observers to be notified.
+     * Registered Observers to be notified, synchronously by default.
+     * Created on first use, so the constructors do not pass this auditorium on before a subclass is initialized.
+     */
+    private final AtomicReference<ObserverDispatcher<Show>> observers = new AtomicReference<>();
+
+    /**
+     * Registered Observers of single ticket changes, see {@link #getTicketEvents()}.
      */
-    private final Set<Observer<Show>> observers = Collections.synchronizedSet(new HashSet<>());
+    private final ObserverDispatcher<TicketEvent> ticketEventObservers = new ObserverDispatcher<>();
 
     @Override
     public void addObserver(Observer<Show> observer) {
-        observers.add(observer);
+        observers().addObserver(observer);
     }
 
     @Override
     public void removeObserver(Observer<Show> observer) {
-        observers.remove(observer);
+        observers().removeObserver(observer);
+    }
+
+    private ObserverDispatcher<Show> observers() {
+        ObserverDispatcher<Show> dispatcher = observers.get();
+        if (dispatcher == null) {
+            observers.compareAndSet(null, new ObserverDispatcher<>(this));
+            dispatcher = observers.get();
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Notifies the observers asynchronously from now on, so booking and canceling tickets does not
+     * wait for slow observers. Observers are then called from a dispatch thread.
+     * <p>
+     * The policy only applies to the {@link Show} notifications. Ticket events are applied as deltas
+     * by their observers, so none may be lost or merged: they always block when their queue is full.
+     *
+     * @param queueCapacity maximum number of notifications waiting for dispatch, must be >= 1
+     * @param policy        what to do with a show notification when the queue is full
+     */
+    public void notifyObserversAsync(int queueCapacity, BackpressurePolicy policy) {
+        observers().dispatchAsync(queueCapacity, policy);
+        ticketEventObservers.dispatchAsync(queueCapacity, BackpressurePolicy.BLOCK);
+    }
+
+    /**
+     * Notifies the observers synchronously again (default).
+     * Pending asynchronous notifications are delivered before this method returns.
+     */
+    public void notifyObserversSynchronously() {
+        observers().dispatchSynchronously();
+        ticketEventObservers.dispatchSynchronously();
     }
 
     /**
@@ -185,8 +597,35 @@ public class Auditorium implements Observable<Show> {
      * @param updatedShow Show whose context has changed (e.g. tickets for show booked)
      */
     private void notifyObserver(Show updatedShow) {
-        synchronized (observers) {
-            observers.forEach(observer -> observer.update(this, updatedShow));
+        ObserverDispatcher<Show> dispatcher = observers.get();
+        if (dispatcher != null) {
+            dispatcher.notifyObservers(updatedShow);
+        }
+    }
+
+    /**
+     * Observers registered here are notified with a {@link TicketEvent} for every booked, canceled,
+     * paid and used ticket of this auditorium, in addition to the {@link Show} notifications.
+     *
+     * @return Observable of the ticket events of this auditorium
+     */
+    public Observable<TicketEvent> getTicketEvents() {
+        return ticketEventObservers;
+    }
+
+    /**
+     * Called by a {@link Ticket} whose state has changed.
+     * The observers are only notified if the ticket itself is registered, not another ticket for its seat.
+     */
+    void ticketChanged(TicketEvent.Type type, Ticket ticket) {
+        if (ticketEventObservers.hasObservers() && isTicketRegistered(ticket)) {
+            ticketEventObservers.notifyObservers(new TicketEvent(type, ticket));
+        }
+    }
+
+    private void notifyTicketEvent(TicketEvent.Type type, Ticket ticket) {
+        if (ticketEventObservers.hasObservers()) {
+            ticketEventObservers.notifyObservers(new TicketEvent(type, ticket));
         }
     }
 
@@ -0,0 +1,34 @@
+package ch.zhaw.prog2.ticketing.model;
+
+/**
+ * Outcome of {@link Auditorium#tryBookTicket(Ticket)}.
+ * Allows to handle a failed booking without creating an exception.
+ */
+public enum BookingResult {
+    /**
+     * The ticket has been registered.
+     */
+    BOOKED("Ticket booked."),
+    /**
+     * There is already a ticket registered for the same show and seat.
+     */
+    SEAT_TAKEN("Seat is already taken."),
+    /**
+     * The seat does not exist in the auditorium.
+     */
+    INVALID_SEAT("Seat does not exist in the auditorium.");
+
+    private final String description;
+
+    BookingResult(String description) {
+        this.description = description;
+    }
+
+    public boolean isBooked() {
+        return this == BOOKED;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,139 @@
+package ch.zhaw.prog2.ticketing.model;
+
+import ch.zhaw.prog2.ticketing.util.Observable;
+import ch.zhaw.prog2.ticketing.util.Observer;
+import ch.zhaw.prog2.ticketing.util.ObserverDispatcher;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Merges the change notifications of an {@link Auditorium} per {@link Show}.
+ * <p>
+ * The first notification for a show opens a window of the configured length. All further notifications
+ * for this show within the window are merged, and at the end of the window a single {@link ShowChange}
+ * is emitted, which carries the seats booked and released since the last emitted change.
+ * The delta is computed from occupancy snapshots, so a seat booked and released within the same window
+ * does not appear at all. Only seats of the auditorium layout are covered.
+ * <p>
+ * The changes are emitted by a dedicated scheduler thread. {@link #close()} stops the bus,
+ * notifications arriving after it are ignored. Failures of observers are passed to the error handler,
+ * see {@link #setErrorHandler(Consumer)}.
+ */
+public final class CoalescingShowEventBus implements Observer<Show>, Observable<ShowChange>, AutoCloseable {
+    private final Auditorium auditorium;
+    private final Duration window;
+    private final ObserverDispatcher<ShowChange> observers = new ObserverDispatcher<>(this);
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "show-event-bus");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Shows with an open window.
+     */
+    private final Set<Show> pendingShows = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Occupancy of every show at its last emitted change, updated by the scheduler thread.
+     */
+    private final Map<Show, BitSet> lastOccupancy = new ConcurrentHashMap<>();
+
+    private volatile boolean closed = false;
+
+    /**
+     * Creates the bus and registers it as observer of the given auditorium.
+     *
+     * @param auditorium auditorium whose changes are merged
+     * @param window     time to merge the changes of a show, must be positive
+     */
+    public CoalescingShowEventBus(Auditorium auditorium, Duration window) {
+        this.auditorium = Objects.requireNonNull(auditorium);
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        this.window = window;
+        for (Show show : auditorium.getShows()) {
+            lastOccupancy.put(show, auditorium.occupiedSeatIndices(show));
+        }
+        auditorium.addObserver(this);
+    }
+
+    @Override
+    public void update(Observable<Show> observable, Show show) {
+        if (closed || !pendingShows.add(show)) {
+            return;
+        }
+        try {
+            scheduler.schedule(() -> emitChange(show), window.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // closed meanwhile: the booking has succeeded, its notification is simply not merged any more
+            pendingShows.remove(show);
+        }
+    }
+
+    private void emitChange(Show show) {
+        // removed before the snapshot: a change after the snapshot opens a new window
+        pendingShows.remove(show);
+        BitSet occupancy = auditorium.occupiedSeatIndices(show);
+        BitSet previousOccupancy = lastOccupancy.getOrDefault(show, new BitSet());
+        lastOccupancy.put(show, occupancy);
+
+        BitSet added = (BitSet) occupancy.clone();
+        added.andNot(previousOccupancy);
+        BitSet removed = (BitSet) previousOccupancy.clone();
+        removed.andNot(occupancy);
+        SeatLayout seatLayout = auditorium.getSeatLayout();
+        ShowChange change = new ShowChange(show,
+            seatLayout.seatsOf(added).toList(),
+            seatLayout.seatsOf(removed).toList());
+        if (!change.isEmpty()) {
+            // a failing observer must not stop the scheduler thread
+            observers.notifyObserversSafely(change);
+        }
+    }
+
+    @Override
+    public void addObserver(Observer<ShowChange> observer) {
+        observers.addObserver(observer);
+    }
+
+    @Override
+    public void removeObserver(Observer<ShowChange> observer) {
+        observers.removeObserver(observer);
+    }
+
+    /**
+     * Sets the handler for exceptions of observers, which by default are logged.
+     *
+     * @param errorHandler called with the exception of a failing observer, must not be null
+     */
+    public void setErrorHandler(Consumer<RuntimeException> errorHandler) {
+        observers.setErrorHandler(errorHandler);
+    }
+
+    /**
+     * Unregisters the bus from the auditorium. Changes within an open window are still emitted.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        auditorium.removeObserver(this);
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,9 +4,18 @@ import java.util.Objects;
 
 /**
  * Represents guests of shows
+ * <p>
+ * Guests with the same name are equal. Tickets refer to the instance of their owner interned
+ * by the auditorium of the show, which has a dense int id, see {@link GuestRegistry}.
  */
 public class Guest {
     private final String name;
+    /**
+     * Registry which has interned this guest and the id it issued, both set once by {@link #claim}.
+     * The id is written before the volatile registry, so whoever sees the registry also sees the id.
+     */
+    volatile GuestRegistry registry;
+    int id = GuestRegistry.UNREGISTERED;
 
     public Guest(String name) {
         this.name = Objects.requireNonNull(name);
@@ -16,11 +25,39 @@ public class Guest {
         return name;
     }
 
+    /**
+     * Returns the id of this guest in the registry of the auditorium which has interned it,
+     * e.g. when a ticket of this guest has been created.
+     *
+     * @return 0 <= id < {@link GuestRegistry#size()}, or -1 if this instance has not been interned
+     */
+    public int getId() {
+        return GuestRegistry.registeredIdOf(this);
+    }
+
+    /**
+     * Assigns the id of the given registry, unless this guest already belongs to a registry.
+     *
+     * @return true if this guest now belongs to the given registry
+     */
+    synchronized boolean claim(GuestRegistry registry, int id) {
+        if (this.registry != null) {
+            return false;
+        }
+        this.id = id;
+        this.registry = registry;
+        return true;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Guest guest = (Guest) o;
+        GuestRegistry guestRegistry = registry;
+        if (guestRegistry != null && guestRegistry == guest.registry) {
+            return id == guest.id;
+        }
         return Objects.equals(name, guest.name);
     }
 
@@ -0,0 +1,127 @@
+package ch.zhaw.prog2.ticketing.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interns the {@link Guest guests} of an {@link Auditorium} and assigns them dense int ids.
+ * <p>
+ * All guests with the same name share one instance, which gets the next free id starting with 0.
+ * Per-guest aggregations can therefore use arrays indexed by {@link Guest#getId()} instead of maps
+ * keyed by guest, which would hash the name for every ticket.
+ * <p>
+ * Every auditorium has its own registry, see {@link Auditorium#getGuestRegistry()}, so the ids only count
+ * the guests of this auditorium, and the guests are released together with the auditorium.
+ * A guest instance belongs to at most one registry; another registry interns a copy of it.
+ */
+public class GuestRegistry {
+    static final int UNREGISTERED = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ConcurrentMap<String, Guest> guestsByName = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    /**
+     * Interned guests indexed by id. Replaced by a larger copy when full, guarded by lock for writing.
+     */
+    private volatile Guest[] guestsById = new Guest[INITIAL_CAPACITY];
+    private int size;
+
+    GuestRegistry() {
+    }
+
+    /**
+     * Returns the shared instance of the given guest, registering it if it is the first guest with its name.
+     * A guest without a name, which has not been created by its constructor (e.g. a test double),
+     * is returned as it is and gets no id.
+     *
+     * @param guest must not be null
+     * @return the interned guest with the same name, never null
+     */
+    public Guest intern(Guest guest) {
+        Objects.requireNonNull(guest);
+        if (idOf(guest) != UNREGISTERED) {
+            return guest;
+        }
+        String guestName = guest.getName();
+        if (guestName == null) {
+            return guest;
+        }
+        return guestsByName.computeIfAbsent(guestName, name -> register(guest, name));
+    }
+
+    private Guest register(Guest guest, String name) {
+        synchronized (lock) {
+            int id = size;
+            Guest registeredGuest = guest;
+            if (!registeredGuest.claim(this, id)) {
+                // already interned by another auditorium
+                registeredGuest = new Guest(name);
+                registeredGuest.claim(this, id);
+            }
+            Guest[] guests = guestsById;
+            if (size == guests.length) {
+                guests = Arrays.copyOf(guests, size * 2);
+            }
+            guests[id] = registeredGuest;
+            size++;
+            guestsById = guests;
+            return registeredGuest;
+        }
+    }
+
+    /**
+     * Returns the id of the given guest if it has been issued by this registry to this very instance.
+     * An id the guest claims otherwise is ignored, so it cannot be mixed up with the guest owning the id.
+     *
+     * @param guest must not be null
+     * @return the id of the interned guest, or {@link #UNREGISTERED}
+     */
+    int idOf(Guest guest) {
+        return registeredIdOf(guest, this);
+    }
+
+    /**
+     * Returns the id of the given guest in the registry which has interned it.
+     * Reads the fields of the guest directly, so a test double can not pretend to be interned.
+     *
+     * @param guest must not be null
+     * @return the id of the interned guest, or {@link #UNREGISTERED}
+     */
+    static int registeredIdOf(Guest guest) {
+        return registeredIdOf(guest, guest.registry);
+    }
+
+    private static int registeredIdOf(Guest guest, GuestRegistry registry) {
+        if (registry == null || guest.registry != registry) {
+            return UNREGISTERED;
+        }
+        int id = guest.id;
+        Guest[] guests = registry.guestsById;
+        return id >= 0 && id < guests.length && guests[id] == guest ? id : UNREGISTERED;
+    }
+
+    /**
+     * @param id id of an interned guest, see {@link Guest#getId()}
+     * @return the guest with the given id, never null
+     * @throws IllegalArgumentException if no guest has the given id
+     */
+    public Guest guestOf(int id) {
+        Guest[] guests = guestsById;
+        Guest guest = id >= 0 && id < guests.length ? guests[id] : null;
+        if (guest == null) {
+            throw new IllegalArgumentException("no guest with id " + id);
+        }
+        return guest;
+    }
+
+    /**
+     * @return number of interned guests, all ids are smaller
+     */
+    public int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+}
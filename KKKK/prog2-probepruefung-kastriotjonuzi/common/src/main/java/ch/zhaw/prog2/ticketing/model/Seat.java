@@ -4,9 +4,31 @@ import java.util.Objects;
 
 /**
  * Represents a seat in an auditorium
+ * <p>
+ * Seats are immutable, {@link #of(char, int)} returns shared instances for the common rows and columns.
+ * <p>
+ * Seats of large venues are addressed by section, row number and column, see {@link #Seat(int, int, int)}.
+ * Seats identified by a row character belong to the default section {@value DEFAULT_SECTION}.
  */
 public class Seat implements Comparable<Seat> {
-    private final char row;
+    /**
+     * Section of the seats identified by a row character.
+     */
+    public static final int DEFAULT_SECTION = 0;
+
+    private static final char FIRST_CACHED_ROW = 'A';
+    private static final int CACHED_ROWS = 26;
+    private static final int CACHED_COLUMNS = 128;
+    private static final Seat[] CACHE = new Seat[CACHED_ROWS * CACHED_COLUMNS];
+
+    static {
+        for (int index = 0; index < CACHE.length; index++) {
+            CACHE[index] = new Seat((char) (FIRST_CACHED_ROW + index / CACHED_COLUMNS), index % CACHED_COLUMNS + 1);
+        }
+    }
+
+    private final int section;
+    private final int row;
     private final int column;
 
     /**
@@ -19,21 +41,71 @@ public class Seat implements Comparable<Seat> {
         if (column < 1) {
             throw new IllegalArgumentException("column must be >= 1");
         }
+        this.section = DEFAULT_SECTION;
+        this.row = row;
+        this.column = column;
+    }
+
+    /**
+     * Creates a new {@link Seat} of a large venue, which is identified by the three given parameters.
+     *
+     * @param section 1 <= section or an IllegalArgumentException is thrown
+     * @param row 1 <= row or an IllegalArgumentException is thrown
+     * @param column 1 <= column or an IllegalArgumentException is thrown
+     */
+    public Seat(int section, int row, int column) {
+        if (section < 1 || row < 1 || column < 1) {
+            throw new IllegalArgumentException("section, row and column must be >= 1");
+        }
+        this.section = section;
         this.row = row;
         this.column = column;
     }
 
+    /**
+     * Returns the {@link Seat} identified by the two given parameters.
+     * Seats of the rows 'A' to 'Z' with up to {@value CACHED_COLUMNS} columns are shared instances,
+     * so no new object is created.
+     *
+     * @param row any Character
+     * @param column 1 <= column <= INTEGER.MAX_VALUE or an IllegalArgumentException is thrown
+     * @return seat equal to <code>new Seat(row, column)</code>
+     */
+    public static Seat of(char row, int column) {
+        int rowOffset = row - FIRST_CACHED_ROW;
+        if (rowOffset >= 0 && rowOffset < CACHED_ROWS && column >= 1 && column <= CACHED_COLUMNS) {
+            return CACHE[rowOffset * CACHED_COLUMNS + column - 1];
+        }
+        return new Seat(row, column);
+    }
+
+    /**
+     * @return the row character, only meaningful for seats of the default section
+     */
     public char getRow() {
+        return (char) row;
+    }
+
+    /**
+     * @return the row number within the section, for the default section the code of the row character
+     */
+    public int getRowNumber() {
         return row;
     }
 
+    public int getSection() {
+        return section;
+    }
+
     public int getColumn() {
         return column;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, column);
+        // same value as Objects.hash(row, column) for the default section, without boxing
+        int hash = 31 * (31 + row) + column;
+        return section == DEFAULT_SECTION ? hash : 31 * hash + section;
     }
 
     @Override
@@ -41,17 +113,22 @@ public class Seat implements Comparable<Seat> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Seat seat = (Seat) o;
-        return row == seat.row && column == seat.column;
+        return row == seat.row && column == seat.column && section == seat.section;
     }
 
     @Override
     public String toString() {
-        return String.format("%s%d", row, column);
+        return section == DEFAULT_SECTION
+            ? String.format("%s%d", (char) row, column)
+            : String.format("S%dR%d-%d", section, row, column);
     }
 
     @Override
     public int compareTo(Seat o) {
         Objects.requireNonNull(o, "never compare to null");
-        return row == o.row ? Integer.compare(column, o.column) : Character.compare(row, o.row);
+        if (section != o.section) {
+            return Integer.compare(section, o.section);
+        }
+        return row == o.row ? Integer.compare(column, o.column) : Integer.compare(row, o.row);
     }
 }
@@ -1,17 +1,16 @@
 package ch.zhaw.prog2.ticketing.model;
 
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.function.IntUnaryOperator;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 /**
  * Helper to generate Set of {@link Seat}s
  * <p>
  * To get 5 rows of 10 seats use <code>SeatGenerator.rectangle(5, 10)</code>.
+ * For venues with more than {@value MAX_ROWS} rows see {@link VenueGenerator}.
  */
 public class SeatGenerator {
     public static final int MAX_ROWS = 26;
@@ -42,6 +41,9 @@ public class SeatGenerator {
      * <p>To have 5 seats in the first row, 7 in the second row, 9 in the third row the function can
      * be defined as <code>rowOffset -> 5 + rowOffset * 2</code>.</p>
      *
+     * <p>The seats are generated sequentially into a presized set. A parallel stream was not faster
+     * in any measurement so far, see SeatGeneratorBenchmark.</p>
+     *
      * @param rows         1 <= rows <= {@value MAX_ROWS}
      * @param seatsInRow   1 <= seatsInRow
      * @return the set of Seats, never null
@@ -50,11 +52,23 @@ public class SeatGenerator {
         requireValidRowNumber(rows);
         Objects.requireNonNull(seatsInRow);
 
-        return IntStream.rangeClosed(1, rows)
-                .parallel()
-                .mapToObj(rowNumber ->
-                        generateRowOfSeats(getCharByNumber(rowNumber), seatsInRow.applyAsInt(rowNumber-1)))
-                .flatMap(Function.identity()).collect(Collectors.toSet());
+        int[] seatsPerRow = IntStream.range(0, rows).map(seatsInRow).toArray();
+        long numberOfSeats = IntStream.of(seatsPerRow).asLongStream().sum();
+        return generateSequential(seatsPerRow, (int) Math.min(numberOfSeats, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Generates the seats row by row into a set presized for the given number of seats.
+     */
+    static Set<Seat> generateSequential(int[] seatsPerRow, int numberOfSeats) {
+        Set<Seat> seats = new HashSet<>((int) (numberOfSeats / 0.75f) + 1);
+        for (int rowOffset = 0; rowOffset < seatsPerRow.length; rowOffset++) {
+            char row = getCharByNumber(rowOffset + 1);
+            for (int seatNumber = 1; seatNumber <= seatsPerRow[rowOffset]; seatNumber++) {
+                seats.add(Seat.of(row, seatNumber));
+            }
+        }
+        return seats;
     }
 
     private static void requireValidSeatNumber(int seatsPerRow) {
@@ -70,16 +84,12 @@ public class SeatGenerator {
         }
     }
 
-    private static Stream<Seat> generateRowOfSeats(char row, int numberOfSeats) {
-        return IntStream.rangeClosed(1, numberOfSeats).mapToObj(seatNumber -> new Seat(row, seatNumber));
-    }
-
     /**
      * Converts 1 to 'A', 2 to 'B', ...
      *
      * @param number 1 <= number <= {@value MAX_ROWS}
      */
-    private static char getCharByNumber(int number) {
+    static char getCharByNumber(int number) {
         return (char) (FIRST_ROW_CHAR + (char) number - 1);
     }
 
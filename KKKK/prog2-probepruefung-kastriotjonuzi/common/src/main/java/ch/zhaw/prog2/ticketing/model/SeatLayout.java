@@ -0,0 +1,388 @@
+package ch.zhaw.prog2.ticketing.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Compact seat arrangement of an auditorium.
+ * <p>
+ * Only the sections and rows which have seats are kept: the section numbers in a sorted int array,
+ * and the row numbers of every section in a sorted range of another int array, whose positions are
+ * the row slots. Every row slot has a grid position for every column from its lowest to its highest seat,
+ * and every grid position has an index (section by section, row by row, column by column).
+ * The start index and the first column of every row slot are kept in int arrays as well.
+ * Sections and rows are numbered consecutively in venues, so they are found in constant time
+ * by their offset to the first one, otherwise by a binary search. Thus the index of a seat is calculated
+ * in constant time for venues with hundreds of rows and 100'000 seats, and seats far apart like
+ * section 1 and section 2'000'000'000 only cost a table entry each.
+ * A row whose seats are spread over much more columns than it has seats, e.g. A1 and A500000000,
+ * only gets a grid position per seat, and its seats are found by a binary search over its sorted columns.
+ * So the number of indices never exceeds a small multiple of the number of seats.
+ * This allows to keep per-seat information like the occupancy of a show in a {@link BitSet}.
+ * The seats which actually exist in the auditorium are marked in {@link #getSeatMask()}, so the layout
+ * needs about one bit per seat instead of a set entry. Every index resolves to one canonical {@link Seat}
+ * instance, the given one for {@link #of(Collection)}, created on first use for the {@link #builder()}.
+ * <p>
+ * Use {@link #of(Collection)} for a given set of seats, or {@link #builder()} to define the sections
+ * of a large venue without creating the seats.
+ */
+public class SeatLayout {
+    /**
+     * A row is stored sparse if it spans more than this many columns per seat.
+     */
+    private static final int SPARSE_ROW_FACTOR = 4;
+
+    /**
+     * Sorted numbers of the sections with seats.
+     */
+    private final int[] sections;
+    /**
+     * Row slot of the first row of every section, plus the total number of row slots at the end.
+     */
+    private final int[] sectionSlots;
+    /**
+     * Row number of every row slot, sorted within each section.
+     */
+    private final int[] rowNumbers;
+    /**
+     * Index of the first grid position of every row slot, plus the total number of grid positions at the end.
+     */
+    private final int[] rowStarts;
+    /**
+     * Column of the first grid position of every row slot.
+     */
+    private final int[] rowFirstColumns;
+    /**
+     * Sorted columns of every sparse row slot, null for the rows with a grid position per column.
+     */
+    private final int[][] sparseRowColumns;
+    private final BitSet seatMask;
+    private final int size;
+    /**
+     * Canonical seat of every index, filled on first use. Seats are immutable, so a seat created twice
+     * by concurrent readers is harmless, and its final fields make it safe to publish without a lock.
+     */
+    private final Seat[] seatsByIndex;
+
+    private SeatLayout(int[] sections, int[] sectionSlots, int[] rowNumbers, int[] rowStarts,
+                       int[] rowFirstColumns, int[][] sparseRowColumns, BitSet seatMask, Seat[] seatsByIndex) {
+        this.sections = sections;
+        this.sectionSlots = sectionSlots;
+        this.rowNumbers = rowNumbers;
+        this.rowStarts = rowStarts;
+        this.rowFirstColumns = rowFirstColumns;
+        this.sparseRowColumns = sparseRowColumns;
+        this.seatMask = seatMask;
+        this.size = seatMask.cardinality();
+        this.seatsByIndex = seatsByIndex;
+    }
+
+    /**
+     * Creates the layout for the given seats.
+     *
+     * @param seats the seats of the auditorium, may be empty
+     * @return the layout containing exactly the given seats
+     */
+    public static SeatLayout of(Collection<Seat> seats) {
+        Objects.requireNonNull(seats);
+        // one key per seat, section in the upper and row in the lower half, sorted and without duplicates
+        long[] rowKeys = new long[seats.size()];
+        int seatCount = 0;
+        for (Seat seat : seats) {
+            rowKeys[seatCount++] = rowKey(seat.getSection(), seat.getRowNumber());
+        }
+        Arrays.sort(rowKeys);
+        int rowSlots = 0;
+        for (int i = 0; i < rowKeys.length; i++) {
+            if (i == 0 || rowKeys[i] != rowKeys[i - 1]) {
+                rowKeys[rowSlots++] = rowKeys[i];
+            }
+        }
+        rowKeys = Arrays.copyOf(rowKeys, rowSlots);
+
+        int[] rowNumbers = new int[rowSlots];
+        int[] sectionNumbers = new int[rowSlots];
+        int[] sectionSlots = new int[rowSlots + 1];
+        int sectionCount = 0;
+        for (int slot = 0; slot < rowSlots; slot++) {
+            int section = (int) (rowKeys[slot] >>> Integer.SIZE);
+            rowNumbers[slot] = (int) rowKeys[slot];
+            if (sectionCount == 0 || sectionNumbers[sectionCount - 1] != section) {
+                sectionNumbers[sectionCount] = section;
+                sectionSlots[sectionCount++] = slot;
+            }
+        }
+        sectionSlots[sectionCount] = rowSlots;
+
+        int[] firstColumns = new int[rowSlots];
+        int[] lastColumns = new int[rowSlots];
+        int[] seatsInRows = new int[rowSlots];
+        Arrays.fill(firstColumns, Integer.MAX_VALUE);
+        Arrays.fill(lastColumns, Integer.MIN_VALUE);
+        for (Seat seat : seats) {
+            int slot = Arrays.binarySearch(rowKeys, rowKey(seat.getSection(), seat.getRowNumber()));
+            firstColumns[slot] = Math.min(firstColumns[slot], seat.getColumn());
+            lastColumns[slot] = Math.max(lastColumns[slot], seat.getColumn());
+            seatsInRows[slot]++;
+        }
+        int[] columnsInRows = new int[rowSlots];
+        int[][] sparseColumns = new int[rowSlots][];
+        for (int slot = 0; slot < rowSlots; slot++) {
+            long span = (long) lastColumns[slot] - firstColumns[slot] + 1;
+            if (span > (long) SPARSE_ROW_FACTOR * seatsInRows[slot]) {
+                sparseColumns[slot] = new int[seatsInRows[slot]];
+                columnsInRows[slot] = seatsInRows[slot];
+                seatsInRows[slot] = 0;
+            } else {
+                columnsInRows[slot] = (int) span;
+            }
+        }
+        for (Seat seat : seats) {
+            int slot = Arrays.binarySearch(rowKeys, rowKey(seat.getSection(), seat.getRowNumber()));
+            if (sparseColumns[slot] != null) {
+                sparseColumns[slot][seatsInRows[slot]++] = seat.getColumn();
+            }
+        }
+        for (int[] columns : sparseColumns) {
+            if (columns != null) {
+                Arrays.sort(columns);
+            }
+        }
+        SeatLayout grid = new SeatLayout(Arrays.copyOf(sectionNumbers, sectionCount),
+                Arrays.copyOf(sectionSlots, sectionCount + 1), rowNumbers, startsOf(columnsInRows),
+                firstColumns, sparseColumns, new BitSet(), null);
+        BitSet seatMask = new BitSet(grid.getIndexRange());
+        for (Seat seat : seats) {
+            seatMask.set(grid.gridIndexOf(seat));
+        }
+        SeatLayout layout = new SeatLayout(grid.sections, grid.sectionSlots, grid.rowNumbers, grid.rowStarts,
+                grid.rowFirstColumns, grid.sparseRowColumns, seatMask, new Seat[grid.getIndexRange()]);
+        for (Seat seat : seats) {
+            layout.seatsByIndex[layout.gridIndexOf(seat)] = seat;
+        }
+        return layout;
+    }
+
+    private static long rowKey(int section, int row) {
+        // both are >= 0, see the constructors of Seat
+        return (long) section << Integer.SIZE | row;
+    }
+
+    /**
+     * @return the start index of every row slot, plus the total number of grid positions at the end
+     */
+    private static int[] startsOf(int[] columnsInRows) {
+        int[] starts = new int[columnsInRows.length + 1];
+        for (int slot = 0; slot < columnsInRows.length; slot++) {
+            starts[slot + 1] = Math.addExact(starts[slot], columnsInRows[slot]);
+        }
+        return starts;
+    }
+
+    /**
+     * @return builder to define the sections of a large venue
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Defines a layout section by section, without creating the seats.
+     * Every row is filled with the seats 1 to the number of seats of the row.
+     */
+    public static class Builder {
+        private final List<int[]> sections = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a section with rows numbered from 1.
+         * The sections must be added in ascending order without gaps.
+         *
+         * @param rows       1 <= rows
+         * @param seatsInRow number of seats of the row, the parameter is the row offset starting with 0
+         * @return this builder
+         */
+        public Builder section(int rows, IntUnaryOperator seatsInRow) {
+            if (rows < 1) {
+                throw new IllegalArgumentException("rows must be >= 1");
+            }
+            Objects.requireNonNull(seatsInRow);
+            int[] seatsPerRow = new int[rows];
+            for (int rowOffset = 0; rowOffset < rows; rowOffset++) {
+                seatsPerRow[rowOffset] = seatsInRow.applyAsInt(rowOffset);
+                if (seatsPerRow[rowOffset] < 1) {
+                    throw new IllegalArgumentException("seatsInRow must be >= 1");
+                }
+            }
+            sections.add(seatsPerRow);
+            return this;
+        }
+
+        /**
+         * @return the layout of the sections 1 to n, in the order they have been added
+         */
+        public SeatLayout build() {
+            int[] sectionNumbers = new int[sections.size()];
+            int[] sectionSlots = new int[sections.size() + 1];
+            for (int sectionOffset = 0; sectionOffset < sections.size(); sectionOffset++) {
+                sectionNumbers[sectionOffset] = sectionOffset + 1;
+                sectionSlots[sectionOffset + 1] = sectionSlots[sectionOffset] + sections.get(sectionOffset).length;
+            }
+            int[] rowNumbers = sections.stream()
+                    .flatMapToInt(seatsPerRow -> IntStream.rangeClosed(1, seatsPerRow.length))
+                    .toArray();
+            int[] columnsInRows = sections.stream().flatMapToInt(Arrays::stream).toArray();
+            int[] firstColumns = new int[columnsInRows.length];
+            Arrays.fill(firstColumns, 1);
+            int[] rowStarts = startsOf(columnsInRows);
+            BitSet seatMask = new BitSet(rowStarts[columnsInRows.length]);
+            seatMask.set(0, rowStarts[columnsInRows.length]);
+            return new SeatLayout(sectionNumbers, sectionSlots, rowNumbers, rowStarts, firstColumns,
+                    new int[columnsInRows.length][], seatMask, new Seat[rowStarts[columnsInRows.length]]);
+        }
+    }
+
+    /**
+     * Returns the index of the given seat.
+     *
+     * @param seat must not be null
+     * @return 0 <= index < {@link #getIndexRange()} or -1 if the seat is not part of the layout
+     */
+    int indexOf(Seat seat) {
+        int index = gridIndexOf(seat);
+        return index >= 0 && seatMask.get(index) ? index : -1;
+    }
+
+    private int gridIndexOf(Seat seat) {
+        int slot = slotOf(seat.getSection(), seat.getRowNumber());
+        if (slot < 0) {
+            return -1;
+        }
+        int[] columns = sparseRowColumns[slot];
+        if (columns != null) {
+            int position = Arrays.binarySearch(columns, seat.getColumn());
+            return position >= 0 ? rowStarts[slot] + position : -1;
+        }
+        long columnOffset = (long) seat.getColumn() - rowFirstColumns[slot];
+        return columnOffset >= 0 && columnOffset < rowStarts[slot + 1] - rowStarts[slot]
+                ? rowStarts[slot] + (int) columnOffset : -1;
+    }
+
+    private int slotOf(int section, int row) {
+        int sectionIndex = positionOf(sections, 0, sections.length, section);
+        if (sectionIndex < 0) {
+            return -1;
+        }
+        return positionOf(rowNumbers, sectionSlots[sectionIndex], sectionSlots[sectionIndex + 1], row);
+    }
+
+    /**
+     * Finds a key in a sorted range without duplicates. Consecutive keys are found in constant time
+     * by their offset to the first key, the others by a binary search.
+     *
+     * @return position of the key or -1 if it is not part of the range
+     */
+    private static int positionOf(int[] keys, int from, int to, int key) {
+        if (from == to) {
+            return -1;
+        }
+        long offset = (long) key - keys[from];
+        if (offset >= 0 && offset < to - from && keys[from + (int) offset] == key) {
+            return from + (int) offset;
+        }
+        int position = Arrays.binarySearch(keys, from, to, key);
+        return position >= 0 ? position : -1;
+    }
+
+    /**
+     * Checks if the given seat is part of the layout, in constant time for consecutive sections and rows.
+     *
+     * @param seat must not be null
+     * @return true if the seat exists in the auditorium
+     */
+    boolean contains(Seat seat) {
+        return indexOf(seat) >= 0;
+    }
+
+    /**
+     * Returns the seat with the given index. The same instance is returned for every call.
+     *
+     * @param index 0 <= index < {@link #getIndexRange()}
+     * @return the seat at the given grid position
+     */
+    Seat seatAt(int index) {
+        Seat seat = seatsByIndex[index];
+        if (seat == null) {
+            seat = createSeat(index);
+            seatsByIndex[index] = seat;
+        }
+        return seat;
+    }
+
+    private Seat createSeat(int index) {
+        int slot = lastStartAtOrBefore(rowStarts, index);
+        int section = sections[lastStartAtOrBefore(sectionSlots, slot)];
+        int row = rowNumbers[slot];
+        int[] columns = sparseRowColumns[slot];
+        int column = columns != null ? columns[index - rowStarts[slot]] : rowFirstColumns[slot] + index - rowStarts[slot];
+        return section == Seat.DEFAULT_SECTION ? Seat.of((char) row, column) : new Seat(section, row, column);
+    }
+
+    /**
+     * Finds the last position whose start is <= value, skipping empty ranges.
+     */
+    private static int lastStartAtOrBefore(int[] starts, int value) {
+        int position = Arrays.binarySearch(starts, value);
+        if (position < 0) {
+            return -position - 2;
+        }
+        while (starts[position + 1] == value) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * @return all seats of the given index set, ordered by section, row and column
+     */
+    Stream<Seat> seatsOf(BitSet indices) {
+        return indices.stream().mapToObj(this::seatAt);
+    }
+
+    /**
+     * @return all seats of the layout, ordered by section, row and column
+     */
+    Stream<Seat> seats() {
+        return seatsOf(seatMask);
+    }
+
+    /**
+     * @return the index of every existing seat is set, do not modify
+     */
+    BitSet getSeatMask() {
+        return seatMask;
+    }
+
+    /**
+     * @return number of indices in the grid, i.e. the upper bound (exclusive) of all seat indices
+     */
+    int getIndexRange() {
+        return rowStarts[rowStarts.length - 1];
+    }
+
+    /**
+     * @return number of seats in the layout
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -1,22 +1,50 @@
 package ch.zhaw.prog2.ticketing.model;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.Objects;
 
 /**
  * This class represents one show of an auditorium at a given time.
  * Shows are distinguished by their names and their dates.
+ * A show occupies its auditorium from its start for its duration, shows of the same auditorium must not overlap.
  * Each show is given a price calculator function that calculates ticket prices.
+ * The prices of a show are fixed per seat: on first use, the function is evaluated once for every seat
+ * of the auditorium and the prices are kept in a table.
  */
-public class Show {
+public final class Show {
     private final Auditorium auditorium;
     private final String name;
     private final PriceCalculatorFunction priceCalculatorFunction;
     private final ZonedDateTime dateTime;
+    private final Duration duration;
+
+    /**
+     * Price of every seat, indexed like the {@link SeatLayout} of the auditorium. Created on first use.
+     */
+    private volatile int[] seatPrices;
+
+    /**
+     * Creates a show without duration, which only conflicts with shows at the same time.
+     */
     public Show(Auditorium auditorium, String name, ZonedDateTime showTime, PriceCalculatorFunction priceCalculatorFunction) throws AuditoriumAlreadyOccupiedException {
+        this(auditorium, name, showTime, Duration.ZERO, priceCalculatorFunction);
+    }
+
+    /**
+     * Creates a show and books the auditorium for it.
+     *
+     * @param duration how long the auditorium is occupied by the show, must not be negative
+     * @throws AuditoriumAlreadyOccupiedException if the show overlaps with another show of the auditorium
+     */
+    public Show(Auditorium auditorium, String name, ZonedDateTime showTime, Duration duration, PriceCalculatorFunction priceCalculatorFunction) throws AuditoriumAlreadyOccupiedException {
         this.auditorium = Objects.requireNonNull(auditorium);
         this.name = Objects.requireNonNull(name);
         this.dateTime = Objects.requireNonNull(showTime);
+        this.duration = Objects.requireNonNull(duration);
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("duration must not be negative");
+        }
         this.priceCalculatorFunction = Objects.requireNonNull(priceCalculatorFunction);
         auditorium.bookAuditoriumFor(this);
     }
@@ -25,9 +53,45 @@ public class Show {
         return dateTime;
     }
 
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return the time the show ends, i.e. the start plus the duration
+     */
+    public ZonedDateTime getEndTime() {
+        return dateTime.plus(duration);
+    }
+
+    /**
+     * Get the price of the given seat. For seats of the auditorium this is a table lookup,
+     * other seats are calculated by the price calculator function.
+     *
+     * @param seat must not be null
+     * @return price in Rappen
+     */
     public int getSeatPrice(Seat seat) {
         Objects.requireNonNull(seat);
-        return priceCalculatorFunction.calculatePriceInRappen(this, seat);
+        SeatLayout seatLayout = auditorium.getSeatLayout();
+        int index = seatLayout == null ? -1 : seatLayout.indexOf(seat);
+        if (index < 0) {
+            return priceCalculatorFunction.calculatePriceInRappen(this, seat);
+        }
+        return getSeatPrices(seatLayout)[index];
+    }
+
+    private int[] getSeatPrices(SeatLayout seatLayout) {
+        int[] prices = seatPrices;
+        if (prices == null) {
+            // calculating the table twice by concurrent threads is harmless, the result is the same
+            int[] calculatedPrices = new int[seatLayout.getIndexRange()];
+            seatLayout.getSeatMask().stream().forEach(index ->
+                calculatedPrices[index] = priceCalculatorFunction.calculatePriceInRappen(this, seatLayout.seatAt(index)));
+            seatPrices = calculatedPrices;
+            prices = calculatedPrices;
+        }
+        return prices;
     }
 
     public PriceCalculatorFunction getPriceCalculatorFunction() {
@@ -0,0 +1,56 @@
+package ch.zhaw.prog2.ticketing.model;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Change of the seat occupancy of a {@link Show}, merged over a time window.
+ * Emitted by the {@link CoalescingShowEventBus}.
+ */
+public class ShowChange {
+    private final Show show;
+    private final List<Seat> addedSeats;
+    private final List<Seat> removedSeats;
+
+    /**
+     * @param show         the changed show
+     * @param addedSeats   seats which have been booked since the last change
+     * @param removedSeats seats which have been released since the last change
+     */
+    public ShowChange(Show show, List<Seat> addedSeats, List<Seat> removedSeats) {
+        this.show = Objects.requireNonNull(show);
+        this.addedSeats = List.copyOf(addedSeats);
+        this.removedSeats = List.copyOf(removedSeats);
+    }
+
+    public Show getShow() {
+        return show;
+    }
+
+    /**
+     * @return the newly booked seats ordered by row and column, never null
+     */
+    public List<Seat> getAddedSeats() {
+        return addedSeats;
+    }
+
+    /**
+     * @return the released seats ordered by row and column, never null
+     */
+    public List<Seat> getRemovedSeats() {
+        return removedSeats;
+    }
+
+    public boolean isEmpty() {
+        return addedSeats.isEmpty() && removedSeats.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "ShowChange{" +
+            "show=" + show.getName() +
+            ", addedSeats=" + addedSeats +
+            ", removedSeats=" + removedSeats +
+            '}';
+    }
+}
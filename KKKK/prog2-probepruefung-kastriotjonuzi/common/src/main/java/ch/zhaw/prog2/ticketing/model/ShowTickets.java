@@ -0,0 +1,161 @@
+package ch.zhaw.prog2.ticketing.model;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
+
+/**
+ * Partition of the tickets registered for one {@link Show}, indexed by {@link Seat}.
+ * <p>
+ * Reading the tickets of a show costs O(tickets of that show), independent of the
+ * number of tickets registered for other shows of the auditorium.
+ * <p>
+ * Every seat of the {@link SeatLayout} has a slot, which is claimed with a single compare-and-set.
+ * A booking never blocks: if another thread claimed the seat first, the booking fails immediately.
+ * The occupied seats are additionally tracked in a bit set, so availability questions are answered
+ * with word-level bit operations.
+ * Seats outside the layout (e.g. for auditoriums without seats) are kept in a {@link ConcurrentHashMap}.
+ */
+class ShowTickets {
+    private final SeatLayout seatLayout;
+    private final AtomicReferenceArray<Ticket> seatSlots;
+    private final AtomicLongArray occupiedSeats;
+    private final Map<Seat, Ticket> ticketsOutsideLayout = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @param seatLayout layout of the auditorium the show takes place in
+     */
+    ShowTickets(SeatLayout seatLayout) {
+        this.seatLayout = Objects.requireNonNull(seatLayout);
+        this.seatSlots = new AtomicReferenceArray<>(seatLayout.getIndexRange());
+        this.occupiedSeats = new AtomicLongArray((seatLayout.getIndexRange() + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    /**
+     * Returns the ticket registered for the given seat
+     *
+     * @param seat must not be null
+     * @return the registered ticket or null if the seat is not booked
+     */
+    Ticket get(Seat seat) {
+        int index = seatLayout.indexOf(Objects.requireNonNull(seat));
+        return index >= 0 ? seatSlots.get(index) : ticketsOutsideLayout.get(seat);
+    }
+
+    /**
+     * Registers the ticket, if its seat is not booked yet.
+     *
+     * @param ticket must not be null
+     * @return true if the ticket has been registered, false if the seat is already booked
+     */
+    boolean add(Ticket ticket) {
+        int index = seatLayout.indexOf(ticket.getSeat());
+        boolean claimed = index >= 0
+                ? seatSlots.compareAndSet(index, null, ticket)
+                : ticketsOutsideLayout.putIfAbsent(ticket.getSeat(), ticket) == null;
+        if (claimed) {
+            size.incrementAndGet();
+            if (index >= 0) {
+                updateOccupancy(index);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Removes the given ticket, if it is registered for its seat.
+     *
+     * @param ticket must not be null
+     * @return true if the ticket has been removed, false if it was not registered
+     */
+    boolean remove(Ticket ticket) {
+        int index = seatLayout.indexOf(ticket.getSeat());
+        boolean removed = index >= 0
+                ? seatSlots.compareAndSet(index, ticket, null)
+                : ticketsOutsideLayout.remove(ticket.getSeat(), ticket);
+        if (removed) {
+            size.decrementAndGet();
+            if (index >= 0) {
+                updateOccupancy(index);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Sets the occupancy bit of the given seat according to its slot.
+     * The slot is read again after the bit has been written, so a concurrent claim or release
+     * of the same seat can not leave a stale bit behind.
+     */
+    private void updateOccupancy(int index) {
+        int word = index / Long.SIZE;
+        long mask = 1L << index;
+        while (true) {
+            boolean occupied = seatSlots.get(index) != null;
+            long current = occupiedSeats.get(word);
+            long updated = occupied ? current | mask : current & ~mask;
+            if ((current == updated || occupiedSeats.compareAndSet(word, current, updated))
+                    && occupied == (seatSlots.get(index) != null)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks if the given seat is not booked.
+     *
+     * @param seat must not be null
+     * @return true if there is no ticket registered for this seat
+     */
+    boolean isFree(Seat seat) {
+        return get(seat) == null;
+    }
+
+    /**
+     * @return number of seats of the layout without registered ticket
+     */
+    int freeSeatCount() {
+        int occupied = 0;
+        for (int word = 0; word < occupiedSeats.length(); word++) {
+            occupied += Long.bitCount(occupiedSeats.get(word));
+        }
+        return seatLayout.size() - occupied;
+    }
+
+    /**
+     * @return the seats of the layout without registered ticket as index set
+     */
+    BitSet freeSeats() {
+        BitSet freeSeats = (BitSet) seatLayout.getSeatMask().clone();
+        freeSeats.andNot(occupiedSeats());
+        return freeSeats;
+    }
+
+    /**
+     * @return snapshot of the seats of the layout with registered ticket as index set
+     */
+    BitSet occupiedSeats() {
+        long[] words = new long[occupiedSeats.length()];
+        for (int word = 0; word < words.length; word++) {
+            words[word] = occupiedSeats.get(word);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    Stream<Ticket> stream() {
+        Stream<Ticket> ticketsInLayout = occupiedSeats().stream()
+                .mapToObj(seatSlots::get)
+                .filter(Objects::nonNull);
+        return Stream.concat(ticketsInLayout, ticketsOutsideLayout.values().stream());
+    }
+}
@@ -1,27 +1,47 @@
 package ch.zhaw.prog2.ticketing.model;
 
+import ch.zhaw.prog2.ticketing.util.TicketIdGenerator;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Objects;
 import java.util.UUID;
 
 /**
  * The ticket for a given show and a given seat
+ * <p>
+ * A season may have millions of tickets, so a ticket is kept small: the id is stored as a long
+ * (see {@link TicketIdGenerator#nextIdBits()}) and the state as bit flags. The owner is interned by the
+ * auditorium of the show (see {@link GuestRegistry}), so all tickets of a guest share one instance.
+ * The flags are set by compare-and-set, so paying and using a ticket concurrently keeps both flags.
  */
 public class Ticket {
-    private final UUID id;
+    private static final byte USED = 1;
+    private static final byte PAID = 2;
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Ticket.class, "state", byte.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long idBits;
     private final int price;
     private final Seat seat;
     private final Show show;
     private final Guest owner;
-    private boolean hasBeenUsed;
-    private boolean isPaid;
+    private volatile byte state;
 
     public Ticket(Show show, Seat seat, Guest owner) {
-        this.id = UUID.randomUUID();
+        this.idBits = TicketIdGenerator.nextIdBits();
         this.show = Objects.requireNonNull(show);
         this.seat = Objects.requireNonNull(seat);
-        this.owner = Objects.requireNonNull(owner);
-        this.hasBeenUsed = false;
-        this.isPaid = false;
+        Auditorium auditorium = show.getAuditorium();
+        this.owner = auditorium == null ? Objects.requireNonNull(owner) : auditorium.getGuestRegistry().intern(owner);
+        this.state = 0;
         price = show.getSeatPrice(seat);
     }
 
@@ -31,27 +51,61 @@ public class Ticket {
      * @return true if the ticket has been paid for and has not been used; false otherwise
      */
     public boolean isAllowedToEnter() {
-        return isPaid && !hasBeenUsed;
+        return (state & (PAID | USED)) == PAID;
     }
 
     /**
-     * "Uses" the ticket. Does nothing, except for setting hasBeenUsed to true.
+     * "Uses" the ticket. Marks the ticket as used and notifies the auditorium of the show.
      */
     public void useTicket() {
-        hasBeenUsed = true;
+        if (setFlag(USED)) {
+            notifyAuditorium(TicketEvent.Type.USED);
+        }
     }
 
     /**
-     * "Pay" for the ticket. Does nothing, except setting isPaid to true.
+     * "Pay" for the ticket. Marks the ticket as paid and notifies the auditorium of the show.
      */
     public void pay() {
-        this.isPaid = true;
+        if (setFlag(PAID)) {
+            notifyAuditorium(TicketEvent.Type.PAID);
+        }
+    }
+
+    /**
+     * Sets the given flag atomically.
+     *
+     * @return true if the flag has been set by this call, false if it was already set
+     */
+    private boolean setFlag(byte flag) {
+        byte current;
+        do {
+            current = state;
+            if ((current & flag) != 0) {
+                return false;
+            }
+        } while (!STATE.compareAndSet(this, current, (byte) (current | flag)));
+        return true;
+    }
+
+    private void notifyAuditorium(TicketEvent.Type type) {
+        Auditorium auditorium = show.getAuditorium();
+        if (auditorium != null) {
+            auditorium.ticketChanged(type, this);
+        }
     }
 
     public Guest getOwner () {
         return owner;
     }
 
+    /**
+     * @return the id of the owner, see {@link Guest#getId()}, or -1 if the owner has not been interned
+     */
+    public int getOwnerId() {
+        return GuestRegistry.registeredIdOf(owner);
+    }
+
     public Show getShow() {
         return this.show;
     }
@@ -61,11 +115,11 @@ public class Ticket {
     }
 
     public boolean getIsPaid() {
-        return this.isPaid;
+        return (state & PAID) != 0;
     }
 
     public UUID getId() {
-        return id;
+        return TicketIdGenerator.toId(idBits);
     }
 
     public int getPrice() {
@@ -0,0 +1,49 @@
+package ch.zhaw.prog2.ticketing.model;
+
+import java.util.Objects;
+
+/**
+ * Change of a single registered {@link Ticket}, emitted by the {@link Auditorium}.
+ * Allows observers to update their state incrementally instead of reading all tickets of the show.
+ */
+public class TicketEvent {
+    public enum Type {
+        /** the ticket has been registered */
+        BOOKED,
+        /** the ticket has been un-registered */
+        CANCELLED,
+        /** the ticket has been paid */
+        PAID,
+        /** the ticket has been used to enter */
+        USED
+    }
+
+    private final Type type;
+    private final Ticket ticket;
+
+    public TicketEvent(Type type, Ticket ticket) {
+        this.type = Objects.requireNonNull(type);
+        this.ticket = Objects.requireNonNull(ticket);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Ticket getTicket() {
+        return ticket;
+    }
+
+    public Show getShow() {
+        return ticket.getShow();
+    }
+
+    @Override
+    public String toString() {
+        return "TicketEvent{" +
+            "type=" + type +
+            ", seat=" + ticket.getSeat() +
+            ", show=" + ticket.getShow().getName() +
+            '}';
+    }
+}
@@ -1,5 +1,7 @@
 package ch.zhaw.prog2.ticketing.model;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -14,7 +16,8 @@ public class TicketFactory {
     }
 
     /**
-     * Creates a ticket and registers it with the auditorium of the show
+     * Creates a ticket and registers it with the auditorium of the show.
+     * Seats which do not exist in the auditorium are rejected before a ticket is created.
      *
      * @param seat  the desired seat
      * @param owner the owner of the ticket
@@ -23,14 +26,26 @@ public class TicketFactory {
     public Optional<Ticket> createTicket(Seat seat, Guest owner) {
         Objects.requireNonNull(seat);
         Objects.requireNonNull(owner);
-        Ticket ticketCandidate = new Ticket(show, seat, owner);
-        try {
-            show.getAuditorium().bookTicket(ticketCandidate);
-        } catch (InvalidTicketException exception) {
+        if (!show.getAuditorium().hasSeat(seat)) {
             return Optional.empty();
         }
+        Ticket ticketCandidate = new Ticket(show, seat, owner);
+        BookingResult result = show.getAuditorium().tryBookTicket(ticketCandidate);
+        return result.isBooked() ? Optional.of(ticketCandidate) : Optional.empty();
+    }
 
-        return Optional.of(ticketCandidate);
+    /**
+     * Creates tickets for all the given seats and registers them with the auditorium of the show.
+     * Either all tickets are registered or none, see {@link Auditorium#bookAll(Show, Collection, Guest)}.
+     *
+     * @param seats the desired seats
+     * @param owner the owner of the tickets
+     * @return an empty optional if the tickets could not be registered; otherwise, the tickets wrapped in an Optional
+     */
+    public Optional<List<Ticket>> createTickets(Collection<Seat> seats, Guest owner) {
+        Objects.requireNonNull(seats);
+        Objects.requireNonNull(owner);
+        return show.getAuditorium().bookAll(show, seats, owner);
     }
 
     public Show getShow() {
@@ -0,0 +1,72 @@
+package ch.zhaw.prog2.ticketing.model;
+
+import java.util.Objects;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Helper to generate {@link SeatLayout}s of large venues, which are divided into sections.
+ * <p>
+ * In contrast to {@link SeatGenerator}, the number of rows is not limited and no {@link Seat} objects are
+ * created, so layouts with 100'000 and more seats are cheap.
+ * Sections are numbered from 1, rows within each section from 1.
+ * <p>
+ * To get 4 sections of 50 rows with 500 seats each use <code>VenueGenerator.rectangle(4, 50, 500)</code>.
+ */
+public class VenueGenerator {
+
+    private VenueGenerator() {
+        // no instances allowed
+    }
+
+    /**
+     * Generate sections with the same number of rows and the same number of seats in every row.
+     *
+     * @param sections        1 <= sections
+     * @param rowsPerSection  1 <= rowsPerSection
+     * @param seatsPerRow     1 <= seatsPerRow
+     * @return the layout, never null
+     */
+    public static SeatLayout rectangle(int sections, int rowsPerSection, int seatsPerRow) {
+        return byFunction(sections, rowsPerSection, (sectionOffset, rowOffset) -> seatsPerRow);
+    }
+
+    /**
+     * Generate sections with seats in a trapezoid shape, from seatsInFirstRow to seatsInLastRow.
+     *
+     * @param sections        1 <= sections
+     * @param rowsPerSection  1 <= rowsPerSection
+     * @param seatsInFirstRow 1 <= seatsInFirstRow
+     * @param seatsInLastRow  1 <= seatsInLastRow
+     * @return the layout, never null
+     */
+    public static SeatLayout trapezoid(int sections, int rowsPerSection, int seatsInFirstRow, int seatsInLastRow) {
+        return byFunction(sections, rowsPerSection, (sectionOffset, rowOffset) -> rowsPerSection == 1
+                ? seatsInFirstRow
+                : seatsInFirstRow + (int) ((long) rowOffset * (seatsInLastRow - seatsInFirstRow) / (rowsPerSection - 1)));
+    }
+
+    /**
+     * Generate sections with given rows.
+     *
+     * <p>The number of seats within one row is calculated using the given function seatsInRow.
+     * The parameters of the function are the number of the section and the number of the row
+     * within the section, both starting with 0.</p>
+     *
+     * @param sections        1 <= sections
+     * @param rowsPerSection  1 <= rowsPerSection
+     * @param seatsInRow      1 <= seatsInRow
+     * @return the layout, never null
+     */
+    public static SeatLayout byFunction(int sections, int rowsPerSection, IntBinaryOperator seatsInRow) {
+        if (sections < 1) {
+            throw new IllegalArgumentException("sections must be >= 1");
+        }
+        Objects.requireNonNull(seatsInRow);
+        SeatLayout.Builder builder = SeatLayout.builder();
+        for (int sectionOffset = 0; sectionOffset < sections; sectionOffset++) {
+            int section = sectionOffset;
+            builder.section(rowsPerSection, rowOffset -> seatsInRow.applyAsInt(section, rowOffset));
+        }
+        return builder.build();
+    }
+}
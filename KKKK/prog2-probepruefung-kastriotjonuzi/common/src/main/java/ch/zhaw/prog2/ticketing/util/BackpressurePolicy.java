@@ -0,0 +1,20 @@
+package ch.zhaw.prog2.ticketing.util;
+
+/**
+ * Defines what happens to a notification, if the queue of an asynchronous {@link ObserverDispatcher} is full.
+ */
+public enum BackpressurePolicy {
+    /**
+     * The notification is dropped, the notifying thread is never blocked.
+     */
+    DROP,
+    /**
+     * The notifying thread waits until there is space in the queue.
+     */
+    BLOCK,
+    /**
+     * A notification is not queued if the same value is already waiting in the queue.
+     * If the queue is full of different values, the notifying thread waits.
+     */
+    COALESCE
+}
@@ -0,0 +1,304 @@
+package ch.zhaw.prog2.ticketing.util;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the registered {@link Observer}s of an {@link Observable} and notifies them.
+ * <p>
+ * The observers are kept in a copy-on-write list, so notifying does not hold any lock.
+ * By default, the observers are notified synchronously by the notifying thread.
+ * After {@link #dispatchAsync(int, BackpressurePolicy)} the notifications are put into a bounded queue,
+ * which is drained by a dedicated thread. Then the notifying thread does not depend on the cost of the observers.
+ * Failures of observers called by the dispatch thread are passed to the error handler,
+ * which logs them by default, see {@link #setErrorHandler(Consumer)}.
+ *
+ * @param <T> Type of Objects the observers are interested in.
+ */
+public class ObserverDispatcher<T> implements Observable<T> {
+    private final Observable<T> source;
+    private final CopyOnWriteArrayList<Observer<T>> observers = new CopyOnWriteArrayList<>();
+    private final AtomicLong droppedNotifications = new AtomicLong();
+    private volatile AsyncDispatch asyncDispatch = null;
+    private volatile Consumer<RuntimeException> errorHandler = ObserverDispatcher::logFailure;
+
+    /**
+     * @param source Observable sending the notifications, passed to the observers
+     */
+    public ObserverDispatcher(Observable<T> source) {
+        this.source = Objects.requireNonNull(source);
+    }
+
+    /**
+     * Creates a dispatcher which is itself the Observable passed to the observers.
+     */
+    public ObserverDispatcher() {
+        this.source = this;
+    }
+
+    @Override
+    public void addObserver(Observer<T> observer) {
+        observers.addIfAbsent(Objects.requireNonNull(observer));
+    }
+
+    @Override
+    public void removeObserver(Observer<T> observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * Notifies all registered observers about the changed value.
+     * Depending on the dispatch mode, the observers are notified now or by the dispatch thread.
+     *
+     * @param value Object which has been changed, must not be null
+     */
+    public void notifyObservers(T value) {
+        Objects.requireNonNull(value);
+        AsyncDispatch currentDispatch = asyncDispatch;
+        if (currentDispatch == null || !currentDispatch.enqueue(value)) {
+            deliver(value);
+        }
+    }
+
+    /**
+     * Notifies all registered observers synchronously. A failing observer does not prevent the others
+     * from being notified, its exception is passed to the error handler instead of the caller.
+     *
+     * @param value Object which has been changed, must not be null
+     */
+    public void notifyObserversSafely(T value) {
+        Objects.requireNonNull(value);
+        for (Observer<T> observer : observers) {
+            try {
+                observer.update(source, value);
+            } catch (RuntimeException e) {
+                errorHandler.accept(e);
+            }
+        }
+    }
+
+    /**
+     * Sets the handler for exceptions of observers which are not thrown to the notifying thread.
+     *
+     * @param errorHandler called with the exception of a failing observer, must not be null
+     */
+    public void setErrorHandler(Consumer<RuntimeException> errorHandler) {
+        this.errorHandler = Objects.requireNonNull(errorHandler);
+    }
+
+    private static void logFailure(RuntimeException e) {
+        System.getLogger(ObserverDispatcher.class.getName()).log(System.Logger.Level.WARNING, "observer failed", e);
+    }
+
+    /**
+     * Allows to skip creating a notification value, if nobody is interested.
+     *
+     * @return true if at least one observer is registered
+     */
+    public boolean hasObservers() {
+        return !observers.isEmpty();
+    }
+
+    private void deliver(T value) {
+        for (Observer<T> observer : observers) {
+            observer.update(source, value);
+        }
+    }
+
+    /**
+     * Switches to asynchronous notification of the observers.
+     * If notifications are already dispatched asynchronously, the pending notifications are
+     * delivered first.
+     *
+     * @param queueCapacity maximum number of notifications waiting for dispatch, must be >= 1
+     * @param policy        what to do with a notification when the queue is full
+     */
+    public synchronized void dispatchAsync(int queueCapacity, BackpressurePolicy policy) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be >= 1");
+        }
+        Objects.requireNonNull(policy);
+        dispatchSynchronously();
+        asyncDispatch = new AsyncDispatch(queueCapacity, policy);
+    }
+
+    /**
+     * Switches back to synchronous notification of the observers.
+     * Notifications which are still queued are delivered before this method returns.
+     */
+    public synchronized void dispatchSynchronously() {
+        AsyncDispatch currentDispatch = asyncDispatch;
+        asyncDispatch = null;
+        if (currentDispatch != null) {
+            currentDispatch.shutdown();
+        }
+    }
+
+    /**
+     * @return true if the observers are notified by the dispatch thread
+     */
+    public boolean isAsync() {
+        return asyncDispatch != null;
+    }
+
+    /**
+     * @return number of notifications dropped because of {@link BackpressurePolicy#DROP}
+     * or lost because the notifying thread has been interrupted while waiting for the queue
+     */
+    public long getDroppedNotifications() {
+        return droppedNotifications.get();
+    }
+
+    /**
+     * Bounded queue of notifications, drained by a single dispatch thread.
+     * Enqueueing and shutting down exclude each other, so a notification is either queued before
+     * the shutdown and delivered by the dispatch thread, or rejected and delivered by the notifying thread
+     * after the queued notifications.
+     */
+    private class AsyncDispatch {
+        private final BlockingQueue<T> queue;
+        private final Set<T> queuedValues = ConcurrentHashMap.newKeySet();
+        private final BackpressurePolicy policy;
+        private final ReadWriteLock shutdownLock = new ReentrantReadWriteLock();
+        private volatile Thread dispatchThread;
+        private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "observer-dispatch");
+            thread.setDaemon(true);
+            dispatchThread = thread;
+            return thread;
+        });
+        private volatile boolean running = true;
+        private boolean closed = false;
+
+        AsyncDispatch(int queueCapacity, BackpressurePolicy policy) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.policy = policy;
+            executor.execute(this::drain);
+        }
+
+        /**
+         * @return false if the value has not been queued and must be delivered by the caller,
+         * because the dispatch has been shut down or the caller is the dispatch thread itself
+         */
+        boolean enqueue(T value) {
+            if (Thread.currentThread() == dispatchThread) {
+                // an observer notifying again must not wait for its own queue
+                return false;
+            }
+            shutdownLock.readLock().lock();
+            try {
+                if (!closed) {
+                    put(value);
+                    return true;
+                }
+            } finally {
+                shutdownLock.readLock().unlock();
+            }
+            awaitDelivery();
+            return false;
+        }
+
+        private void put(T value) {
+            try {
+                switch (policy) {
+                    case DROP -> {
+                        if (!queue.offer(value)) {
+                            droppedNotifications.incrementAndGet();
+                        }
+                    }
+                    case BLOCK -> queue.put(value);
+                    case COALESCE -> {
+                        if (queuedValues.add(value)) {
+                            queue.put(value);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // not queued, so a later change of the same value must be queued again
+                queuedValues.remove(value);
+                droppedNotifications.incrementAndGet();
+                System.getLogger(ObserverDispatcher.class.getName()).log(System.Logger.Level.WARNING,
+                    "notification lost, interrupted while waiting for the queue: {0}", value);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void drain() {
+            try {
+                while (running || !queue.isEmpty()) {
+                    deliverNext(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void deliverNext(long timeoutMillis) throws InterruptedException {
+            T value = queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (value != null) {
+                // removed before delivery: a change during the delivery is queued again
+                queuedValues.remove(value);
+                notifyObserversSafely(value);
+            }
+        }
+
+        /**
+         * Rejects further notifications and waits until the queued ones are delivered, unless called
+         * by an observer on the dispatch thread, which delivers the rest after the observer returns.
+         * Notifying threads arriving meanwhile wait as well, so they deliver after the queued notifications.
+         */
+        void shutdown() {
+            lockForShutdown();
+            try {
+                closed = true;
+                running = false;
+                executor.shutdown();
+            } finally {
+                shutdownLock.writeLock().unlock();
+            }
+            awaitDelivery();
+        }
+
+        private void lockForShutdown() {
+            if (Thread.currentThread() != dispatchThread) {
+                shutdownLock.writeLock().lock();
+                return;
+            }
+            // notifying threads waiting for space in the queue hold the read lock, so keep delivering meanwhile
+            boolean interrupted = false;
+            while (!shutdownLock.writeLock().tryLock()) {
+                try {
+                    deliverNext(10);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void awaitDelivery() {
+            if (Thread.currentThread() == dispatchThread) {
+                // the dispatch thread can not wait for itself
+                return;
+            }
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ch.zhaw.prog2.ticketing.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates unique, time-ordered ids in the format of UUID version 7.
+ * <p>
+ * The upper 48 bits hold the creation time in milliseconds, followed by a 12 bit sequence number,
+ * which is increased for every id within the same millisecond. Both together form a strictly
+ * increasing value, so ids generated later compare greater ({@link UUID#compareTo(UUID)}).
+ * If more than 4096 ids are generated within one millisecond, the timestamp runs slightly ahead
+ * of the clock, the ids stay unique and ordered.
+ * The lower 62 bits are random per JVM, to distinguish ids of different processes.
+ * <p>
+ * In contrast to {@link UUID#randomUUID()}, generating an id does not use {@link SecureRandom}.
+ */
+public class TicketIdGenerator {
+    private static final int SEQUENCE_BITS = 12;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC_4122 = 0x8000_0000_0000_0000L;
+    private static final long NODE_BITS = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private static final long NODE = VARIANT_RFC_4122 | (new SecureRandom().nextLong() & NODE_BITS);
+    private static final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    private TicketIdGenerator() {
+        // no instances allowed
+    }
+
+    /**
+     * @return a new id, greater than all ids generated before in this JVM
+     */
+    public static UUID nextId() {
+        return toId(nextIdBits());
+    }
+
+    /**
+     * Generates a new id, but returns only its upper 64 bits, because the lower bits are the same
+     * for all ids of this JVM. Allows to store an id in a long field.
+     *
+     * @return the upper 64 bits of a new id, see {@link #toId(long)}
+     */
+    public static long nextIdBits() {
+        long timeAndSequence = lastTimeAndSequence.updateAndGet(last ->
+            Math.max(last + 1, System.currentTimeMillis() << SEQUENCE_BITS));
+        long timestamp = timeAndSequence >>> SEQUENCE_BITS;
+        long sequence = timeAndSequence & ((1L << SEQUENCE_BITS) - 1);
+        return timestamp << 16 | VERSION_7 | sequence;
+    }
+
+    /**
+     * @param idBits upper 64 bits of an id generated by {@link #nextIdBits()}
+     * @return the complete id
+     */
+    public static UUID toId(long idBits) {
+        return new UUID(idBits, NODE);
+    }
+}
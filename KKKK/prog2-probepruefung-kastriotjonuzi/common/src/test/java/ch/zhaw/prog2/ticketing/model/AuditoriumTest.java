@@ -1,10 +1,25 @@
 package ch.zhaw.prog2.ticketing.model;
 
+import ch.zhaw.prog2.ticketing.util.BackpressurePolicy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -44,4 +59,402 @@ class AuditoriumTest {
         assertThrows(AuditoriumAlreadyOccupiedException.class,
                 () -> auditorium.bookAuditoriumFor(conflictingShow), "show at the same date / time is not allowed");
     }
+
+    @Test
+    void overlappingShows() throws AuditoriumAlreadyOccupiedException {
+        ZonedDateTime evening = ZonedDateTime.of(2022, 6, 2, 19, 30, 0, 0, ZoneId.systemDefault());
+        Show eveningShow = new Show(auditorium, "Evening", evening, Duration.ofHours(2), (show, seat) -> 1800);
+        assertEquals(evening.plusHours(2), eveningShow.getEndTime());
+
+        assertThrows(AuditoriumAlreadyOccupiedException.class,
+                () -> new Show(auditorium, "Starts during", evening.plusHours(1), (show, seat) -> 1800));
+        assertThrows(AuditoriumAlreadyOccupiedException.class,
+                () -> new Show(auditorium, "Ends during", evening.minusHours(1), Duration.ofMinutes(90), (show, seat) -> 1800));
+        AuditoriumAlreadyOccupiedException exception = assertThrows(AuditoriumAlreadyOccupiedException.class,
+                () -> new Show(auditorium, "Covers", evening.minusHours(1), Duration.ofHours(4), (show, seat) -> 1800));
+        assertSame(eveningShow, exception.getBookedShow());
+
+        Show lateShow = new Show(auditorium, "Late", evening.plusHours(2), Duration.ofHours(2), (show, seat) -> 1800);
+        Show earlyShow = new Show(auditorium, "Early", evening.minusHours(2), Duration.ofHours(2), (show, seat) -> 1800);
+        assertDoesNotThrow(() -> auditorium.bookAuditoriumFor(eveningShow), "Adding the same show twice is ok.");
+        assertEquals(List.of(earlyShow, eveningShow, lateShow), List.copyOf(auditorium.getShows()), "ordered by start");
+        assertTrue(auditorium.getShows().contains(eveningShow));
+    }
+
+    @Test
+    void showQueries() throws AuditoriumAlreadyOccupiedException {
+        ZoneId zone = ZoneId.of("Europe/Zurich");
+        ZonedDateTime firstDay = ZonedDateTime.of(2022, 6, 2, 0, 0, 0, 0, zone);
+        List<Show> season = new ArrayList<>();
+        for (int day = 0; day < 3; day++) {
+            for (int hour : new int[]{12, 19}) {
+                season.add(new Show(auditorium, "Show", firstDay.plusDays(day).withHour(hour), Duration.ofHours(2), (show, seat) -> 1800));
+            }
+        }
+
+        assertEquals(season.subList(2, 4), auditorium.getShowsOn(firstDay.plusDays(1).toLocalDate(), zone).toList());
+        assertEquals(season.subList(1, 3), auditorium.getShowsBetween(firstDay.withHour(19), firstDay.plusDays(1).withHour(19)).toList(),
+                "start inclusive, end exclusive");
+        assertEquals(List.of(), auditorium.getShowsBetween(firstDay.plusDays(1), firstDay).toList());
+        assertEquals(season.subList(1, 4), auditorium.getNextShows(firstDay.withHour(13), 3).toList());
+        assertEquals(season.subList(5, 6), auditorium.getNextShows(firstDay.plusDays(2).withHour(13), 3).toList());
+
+        Show todaysShow = new Show(auditorium, "Today", ZonedDateTime.now().withHour(9), (show, seat) -> 1800);
+        assertEquals(List.of(todaysShow), auditorium.getShowsToday().toList());
+    }
+
+    @Test
+    void ticketCount() throws AuditoriumAlreadyOccupiedException {
+        ZonedDateTime firstDate = ZonedDateTime.of(2022, 6, 2, 18, 15, 0, 0, ZoneId.systemDefault());
+        Show firstShow = new Show(auditorium, "First Show", firstDate, (show, seat) -> 1800);
+        Show secondShow = new Show(auditorium, "Second Show", firstDate.plusDays(1), (show, seat) -> 1800);
+        TicketFactory ticketFactory = new TicketFactory(firstShow);
+        ticketFactory.createTicket(new Seat('A', 1), new Guest("Guest"));
+        ticketFactory.createTicket(new Seat('A', 2), new Guest("Guest"));
+        new TicketFactory(secondShow).createTicket(new Seat('A', 1), new Guest("Guest"));
+
+        assertEquals(2, auditorium.ticketCount(firstShow));
+        assertEquals(1, auditorium.ticketCount(secondShow));
+        assertEquals(2, auditorium.getRegisteredTicketsFor(firstShow).count(), "only tickets of the first show");
+        assertEquals(3, auditorium.getRegisteredTickets().size(), "tickets of all shows");
+    }
+
+    @Test
+    void seatLayout() {
+        Auditorium trapezoidAuditorium = new Auditorium("Kellerkino", SeatGenerator.trapezoid(3, 2, 4));
+        assertEquals(List.of(new Seat('A', 1), new Seat('A', 2), new Seat('B', 1), new Seat('B', 2), new Seat('B', 3),
+                        new Seat('C', 1), new Seat('C', 2), new Seat('C', 3), new Seat('C', 4)),
+                trapezoidAuditorium.getSeats().toList(), "seats ordered by row and column");
+        assertTrue(trapezoidAuditorium.hasSeat(new Seat('B', 3)));
+        assertFalse(trapezoidAuditorium.hasSeat(new Seat('A', 3)));
+        assertFalse(trapezoidAuditorium.hasSeat(new Seat('D', 1)));
+
+        Auditorium auditoriumWithGaps = new Auditorium("Loge", Set.of(new Seat('B', 3), new Seat('D', 1), new Seat('D', 5)));
+        assertEquals(List.of(new Seat('B', 3), new Seat('D', 1), new Seat('D', 5)), auditoriumWithGaps.getSeats().toList());
+        assertFalse(auditoriumWithGaps.hasSeat(new Seat('C', 1)), "row without seats");
+        assertFalse(auditoriumWithGaps.hasSeat(new Seat('D', 2)), "gap within the row");
+    }
+
+    @Test
+    void sparseSeatLayout() throws AuditoriumAlreadyOccupiedException {
+        Auditorium balcony = new Auditorium("Balkon", Set.of(new Seat('A', 101), new Seat('A', 102), new Seat('A', 103)));
+        assertEquals(3, balcony.getSeatLayout().getIndexRange(), "grid starts at the first column of the row");
+        assertFalse(balcony.hasSeat(new Seat('A', 100)));
+
+        Seat lastSeat = new Seat('A', 500_000_000);
+        Auditorium sparseAuditorium = new Auditorium("X", Set.of(new Seat('A', 1), lastSeat, new Seat('B', 2)));
+        assertEquals(3, sparseAuditorium.getSeatLayout().getIndexRange(), "one index per seat of a sparse row");
+        assertEquals(List.of(new Seat('A', 1), lastSeat, new Seat('B', 2)), sparseAuditorium.getSeats().toList());
+        assertFalse(sparseAuditorium.hasSeat(new Seat('A', 2)));
+
+        Show show = new Show(sparseAuditorium, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        assertTrue(new TicketFactory(show).createTicket(lastSeat, new Guest("Guest")).isPresent());
+        assertFalse(sparseAuditorium.isSeatFree(show, lastSeat));
+        assertEquals(List.of(new Seat('A', 1), new Seat('B', 2)), sparseAuditorium.getFreeSeats(show).toList());
+    }
+
+    @Test
+    void farApartSectionsAndRows() throws AuditoriumAlreadyOccupiedException {
+        Seat farRow = new Seat(1, 1_500_000_000, 1);
+        Seat farSection = new Seat(2_000_000_000, 1, 1);
+        Auditorium arena = new Auditorium("Arena", Set.of(new Seat(1, 1, 1), farRow, farSection, new Seat(1, 2, 1)));
+        assertEquals(4, arena.getSeatLayout().getIndexRange(), "only sections and rows with seats are kept");
+        assertEquals(List.of(new Seat(1, 1, 1), new Seat(1, 2, 1), farRow, farSection), arena.getSeats().toList());
+        assertTrue(arena.hasSeat(farRow));
+        assertFalse(arena.hasSeat(new Seat(1, 3, 1)), "row between the rows with seats");
+        assertFalse(arena.hasSeat(new Seat(2, 1, 1)), "section between the sections with seats");
+
+        Show show = new Show(arena, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        assertTrue(new TicketFactory(show).createTicket(farSection, new Guest("Guest")).isPresent());
+        assertEquals(3, arena.freeSeatCount(show));
+        assertFalse(arena.isSeatFree(show, farSection));
+    }
+
+    @Test
+    void largeVenue() throws AuditoriumAlreadyOccupiedException {
+        Auditorium arena = new Auditorium("Hallenstadion", VenueGenerator.rectangle(4, 250, 100));
+        Show show = new Show(arena, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        assertEquals(100_000, arena.freeSeatCount(show));
+        assertEquals(new Seat(1, 1, 1), arena.getSeats().findFirst().orElseThrow());
+        assertSame(arena.getSeats().findFirst().orElseThrow(), arena.getSeats().findFirst().orElseThrow(),
+                "the layout returns canonical seat instances");
+        assertTrue(arena.hasSeat(new Seat(4, 250, 100)));
+        assertFalse(arena.hasSeat(new Seat(5, 1, 1)), "section does not exist");
+        assertFalse(arena.hasSeat(new Seat(2, 251, 1)), "row does not exist");
+        assertFalse(arena.hasSeat(new Seat('A', 1)), "no seats in the default section");
+
+        Seat seat = new Seat(3, 120, 42);
+        assertTrue(new TicketFactory(show).createTicket(seat, new Guest("Guest")).isPresent());
+        assertFalse(arena.isSeatFree(show, seat));
+        assertEquals(99_999, arena.freeSeatCount(show));
+        assertEquals(99_999, arena.getFreeSeats(show).count());
+    }
+
+    @Test
+    void trapezoidVenue() {
+        Auditorium arena = new Auditorium("Arena", VenueGenerator.trapezoid(2, 3, 2, 4));
+        assertEquals(List.of(new Seat(1, 1, 1), new Seat(1, 1, 2),
+                        new Seat(1, 2, 1), new Seat(1, 2, 2), new Seat(1, 2, 3),
+                        new Seat(1, 3, 1), new Seat(1, 3, 2), new Seat(1, 3, 3), new Seat(1, 3, 4)),
+                arena.getSeats().limit(9).toList(), "seats ordered by section, row and column");
+        assertEquals(18, arena.getSeats().count());
+        assertEquals(new Seat(2, 3, 4), arena.getSeats().reduce((first, second) -> second).orElseThrow());
+    }
+
+    @Test
+    void freeSeats() throws AuditoriumAlreadyOccupiedException {
+        Auditorium smallAuditorium = new Auditorium("Kellerkino", SeatGenerator.rectangle(2, 3));
+        Show show = new Show(smallAuditorium, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        assertEquals(6, smallAuditorium.freeSeatCount(show), "all seats are free initially");
+
+        new TicketFactory(show).createTicket(new Seat('A', 2), new Guest("Guest"));
+
+        assertFalse(smallAuditorium.isSeatFree(show, new Seat('A', 2)));
+        assertTrue(smallAuditorium.isSeatFree(show, new Seat('A', 3)));
+        assertEquals(5, smallAuditorium.freeSeatCount(show));
+        assertEquals(List.of(new Seat('A', 1), new Seat('A', 3), new Seat('B', 1), new Seat('B', 2), new Seat('B', 3)),
+                smallAuditorium.getFreeSeats(show).toList(), "free seats ordered by row and column");
+    }
+
+    @Test
+    void cancelUnregisteredTicketOfBookedSeat() throws AuditoriumAlreadyOccupiedException {
+        Auditorium smallAuditorium = new Auditorium("Kellerkino", SeatGenerator.rectangle(2, 3));
+        Show show = new Show(smallAuditorium, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        Ticket bookedTicket = new TicketFactory(show).createTicket(new Seat('A', 2), new Guest("Guest")).orElseThrow();
+
+        Ticket duplicateTicket = new Ticket(show, new Seat('A', 2), new Guest("Other Guest"));
+        assertFalse(smallAuditorium.isTicketRegistered(duplicateTicket), "tickets are matched by identity");
+        smallAuditorium.cancelTicket(duplicateTicket);
+
+        assertTrue(smallAuditorium.isTicketRegistered(bookedTicket), "only the registered ticket releases the seat");
+        assertEquals(1, smallAuditorium.ticketCount(show));
+    }
+
+    @Test
+    void ticketEvents() throws AuditoriumAlreadyOccupiedException {
+        Auditorium smallAuditorium = new Auditorium("Kellerkino", SeatGenerator.rectangle(2, 3));
+        Show show = new Show(smallAuditorium, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        List<TicketEvent> events = new ArrayList<>();
+        smallAuditorium.getTicketEvents().addObserver((observable, event) -> events.add(event));
+
+        Ticket ticket = new TicketFactory(show).createTicket(new Seat('A', 2), new Guest("Guest")).orElseThrow();
+        ticket.pay();
+        ticket.pay();
+        ticket.useTicket();
+        new Ticket(show, new Seat('A', 2), new Guest("Other Guest")).pay();
+        smallAuditorium.cancelTicket(ticket);
+        new Ticket(show, new Seat('B', 1), new Guest("Other Guest")).pay();
+
+        assertEquals(List.of(TicketEvent.Type.BOOKED, TicketEvent.Type.PAID, TicketEvent.Type.USED, TicketEvent.Type.CANCELLED),
+                events.stream().map(TicketEvent::getType).toList(), "one event per change of a registered ticket");
+        assertTrue(events.stream().allMatch(event -> event.getTicket() == ticket));
+    }
+
+    @Test
+    void concurrentPaymentAndUse() throws Exception {
+        Auditorium hall = new Auditorium("Volkshaus", SeatGenerator.rectangle(4, 20));
+        Show show = new Show(hall, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        AtomicInteger events = new AtomicInteger();
+        hall.getTicketEvents().addObserver((observable, event) -> events.incrementAndGet());
+        TicketFactory ticketFactory = new TicketFactory(show);
+        Guest guest = new Guest("Guest");
+        List<Ticket> tickets = hall.getSeats().map(seat -> ticketFactory.createTicket(seat, guest).orElseThrow()).toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            results.add(executor.submit(() -> { startSignal.await(); tickets.forEach(Ticket::pay); return null; }));
+            results.add(executor.submit(() -> { startSignal.await(); tickets.forEach(Ticket::useTicket); return null; }));
+        }
+        startSignal.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        assertTrue(tickets.stream().allMatch(Ticket::getIsPaid), "no payment is lost");
+        assertTrue(tickets.stream().noneMatch(Ticket::isAllowedToEnter), "no use is lost");
+        assertEquals(3 * tickets.size(), events.get(), "one BOOKED, PAID and USED event per ticket");
+    }
+
+    @Test
+    void tryBookTicket() throws AuditoriumAlreadyOccupiedException {
+        Auditorium smallAuditorium = new Auditorium("Kellerkino", SeatGenerator.rectangle(2, 3));
+        Show show = new Show(smallAuditorium, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        Show otherShow = new Show(new Auditorium("Eigersaal"), "Other Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        Guest guest = new Guest("Guest");
+
+        assertEquals(BookingResult.BOOKED, smallAuditorium.tryBookTicket(new Ticket(show, new Seat('A', 1), guest)));
+        assertEquals(BookingResult.SEAT_TAKEN, smallAuditorium.tryBookTicket(new Ticket(show, new Seat('A', 1), guest)));
+        assertEquals(BookingResult.INVALID_SEAT, smallAuditorium.tryBookTicket(new Ticket(show, new Seat('C', 1), guest)));
+        assertEquals(BookingResult.INVALID_SEAT, smallAuditorium.tryBookTicket(new Ticket(show, new Seat('A', 4), guest)));
+        assertEquals(BookingResult.BOOKED, smallAuditorium.tryBookTicket(new Ticket(otherShow, new Seat('A', 2), guest)),
+                "tickets of shows in other auditoriums are registered as before");
+        assertEquals(1, smallAuditorium.ticketCount(show));
+        assertThrows(InvalidTicketException.class, () -> smallAuditorium.bookTicket(new Ticket(show, new Seat('A', 1), guest)));
+    }
+
+    @Test
+    void invalidSeatRejectedBeforeTicketIsCreated() throws AuditoriumAlreadyOccupiedException {
+        Auditorium smallAuditorium = new Auditorium("Kellerkino", SeatGenerator.rectangle(2, 3));
+        AtomicInteger priceCalculations = new AtomicInteger();
+        Show show = new Show(smallAuditorium, "Show", ZonedDateTime.now(), (s, seat) -> {
+            priceCalculations.incrementAndGet();
+            return 1800;
+        });
+        TicketFactory ticketFactory = new TicketFactory(show);
+        Guest guest = new Guest("Guest");
+
+        assertTrue(ticketFactory.createTicket(new Seat('C', 1), guest).isEmpty(), "row does not exist");
+        assertTrue(ticketFactory.createTicket(new Seat('A', 4), guest).isEmpty(), "seat does not exist");
+        assertTrue(ticketFactory.createTickets(List.of(new Seat('A', 1), new Seat('A', 4)), guest).isEmpty());
+        assertEquals(0, priceCalculations.get(), "no ticket has been created");
+        assertEquals(0, smallAuditorium.ticketCount(show));
+        assertTrue(ticketFactory.createTicket(new Seat('B', 3), guest).isPresent());
+    }
+
+    @Test
+    void bookAll() throws AuditoriumAlreadyOccupiedException {
+        Auditorium smallAuditorium = new Auditorium("Kellerkino", SeatGenerator.rectangle(2, 3));
+        Show show = new Show(smallAuditorium, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        List<Show> notifications = new ArrayList<>();
+        smallAuditorium.addObserver((observable, updatedShow) -> notifications.add(updatedShow));
+        TicketFactory ticketFactory = new TicketFactory(show);
+        Guest guest = new Guest("Guest");
+
+        List<Seat> seats = List.of(new Seat('A', 1), new Seat('A', 2), new Seat('B', 1));
+        List<Ticket> tickets = ticketFactory.createTickets(seats, guest).orElseThrow();
+        assertEquals(seats, tickets.stream().map(Ticket::getSeat).toList());
+        assertEquals(3, smallAuditorium.ticketCount(show));
+        assertEquals(List.of(show), notifications, "single notification for the batch");
+
+        assertTrue(ticketFactory.createTickets(List.of(new Seat('A', 3), new Seat('A', 2)), guest).isEmpty(),
+                "batch with a taken seat");
+        assertTrue(ticketFactory.createTickets(List.of(new Seat('B', 2), new Seat('B', 2)), guest).isEmpty(),
+                "batch with the same seat twice");
+        assertEquals(3, smallAuditorium.ticketCount(show), "nothing is booked of a rejected batch");
+        assertTrue(smallAuditorium.isSeatFree(show, new Seat('A', 3)));
+        assertTrue(smallAuditorium.isSeatFree(show, new Seat('B', 2)));
+        assertEquals(1, notifications.size());
+    }
+
+    @Test
+    void concurrentBookingOfSameSeats() throws Exception {
+        final int NUMBER_OF_THREADS = 8;
+        Auditorium hall = new Auditorium("Volkshaus", SeatGenerator.rectangle(4, 20));
+        Show show = new Show(hall, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        List<Seat> seats = hall.getSeats().toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Long>> bookedTicketCounts = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+            Guest guest = new Guest("Guest " + i);
+            bookedTicketCounts.add(executor.submit(() -> {
+                startSignal.await();
+                TicketFactory ticketFactory = new TicketFactory(show);
+                return seats.stream()
+                        .map(seat -> ticketFactory.createTicket(seat, guest))
+                        .filter(Optional::isPresent)
+                        .count();
+            }));
+        }
+        startSignal.countDown();
+        long bookedTickets = 0;
+        for (Future<Long> bookedTicketCount : bookedTicketCounts) {
+            bookedTickets += bookedTicketCount.get();
+        }
+        executor.shutdown();
+
+        assertEquals(seats.size(), bookedTickets, "every seat must be booked exactly once");
+        assertEquals(seats.size(), hall.ticketCount(show));
+        assertEquals(0, hall.freeSeatCount(show));
+    }
+
+    @Test
+    void asyncObserverDoesNotBlockBooking() throws Exception {
+        Auditorium smallAuditorium = new Auditorium("Kellerkino", SeatGenerator.rectangle(2, 3));
+        Show show = new Show(smallAuditorium, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        CountDownLatch observerEntered = new CountDownLatch(1);
+        CountDownLatch observerRelease = new CountDownLatch(1);
+        List<Thread> notifiedThreads = new CopyOnWriteArrayList<>();
+        smallAuditorium.addObserver((observable, updatedShow) -> {
+            notifiedThreads.add(Thread.currentThread());
+            observerEntered.countDown();
+            try {
+                observerRelease.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        smallAuditorium.notifyObserversAsync(4, BackpressurePolicy.COALESCE);
+
+        TicketFactory ticketFactory = new TicketFactory(show);
+        Guest guest = new Guest("Guest");
+        ExecutorService booker = Executors.newSingleThreadExecutor();
+        Future<Integer> bookings = booker.submit(() -> {
+            int booked = ticketFactory.createTicket(new Seat('A', 1), guest).isPresent() ? 1 : 0;
+            // the observer is blocked from now on, it must not hold up the next bookings
+            observerEntered.await();
+            booked += ticketFactory.createTicket(new Seat('A', 2), guest).isPresent() ? 1 : 0;
+            booked += ticketFactory.createTicket(new Seat('A', 3), guest).isPresent() ? 1 : 0;
+            return booked;
+        });
+        try {
+            assertEquals(3, (int) bookings.get(5, TimeUnit.SECONDS), "booking returns while the observer is blocked");
+            assertEquals(1, observerRelease.getCount());
+        } finally {
+            observerRelease.countDown();
+            booker.shutdown();
+        }
+        smallAuditorium.notifyObserversSynchronously();
+        assertFalse(notifiedThreads.isEmpty(), "observer must be notified");
+        assertTrue(notifiedThreads.size() <= 2, "notifications of the same show are coalesced");
+        assertFalse(notifiedThreads.contains(Thread.currentThread()), "observer is notified by the dispatch thread");
+    }
+
+    @Test
+    void coalescedShowChanges() throws Exception {
+        Auditorium smallAuditorium = new Auditorium("Kellerkino", SeatGenerator.rectangle(2, 3));
+        Show show = new Show(smallAuditorium, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        BlockingQueue<ShowChange> changes = new LinkedBlockingQueue<>();
+        try (CoalescingShowEventBus eventBus = new CoalescingShowEventBus(smallAuditorium, Duration.ofMillis(200))) {
+            eventBus.addObserver((observable, change) -> changes.add(change));
+
+            TicketFactory ticketFactory = new TicketFactory(show);
+            Guest guest = new Guest("Guest");
+            ticketFactory.createTicket(new Seat('A', 1), guest);
+            Ticket cancelledTicket = ticketFactory.createTicket(new Seat('A', 2), guest).orElseThrow();
+            ticketFactory.createTicket(new Seat('B', 3), guest);
+            smallAuditorium.cancelTicket(cancelledTicket);
+
+            ShowChange change = changes.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change, "changes within the window are emitted");
+            assertSame(show, change.getShow());
+            assertEquals(List.of(new Seat('A', 1), new Seat('B', 3)), change.getAddedSeats());
+            assertEquals(List.of(), change.getRemovedSeats(), "seat booked and released within the window");
+            assertNull(changes.poll(400, TimeUnit.MILLISECONDS), "a burst results in a single change");
+
+            smallAuditorium.cancelTicket(smallAuditorium.getRegisteredTicketsFor(show).findFirst().orElseThrow());
+            change = changes.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change);
+            assertEquals(List.of(new Seat('A', 1)), change.getRemovedSeats());
+            assertEquals(List.of(), change.getAddedSeats());
+        }
+    }
+
+    @Test
+    void closedEventBusIgnoresLateNotifications() throws Exception {
+        Auditorium smallAuditorium = new Auditorium("Kellerkino", SeatGenerator.rectangle(2, 3));
+        Show show = new Show(smallAuditorium, "Show", ZonedDateTime.now(), (s, seat) -> 1800);
+        BlockingQueue<ShowChange> changes = new LinkedBlockingQueue<>();
+        CoalescingShowEventBus eventBus = new CoalescingShowEventBus(smallAuditorium, Duration.ofMillis(50));
+        eventBus.addObserver((observable, change) -> changes.add(change));
+        eventBus.close();
+
+        // a booking thread which has read the observers before the bus was unregistered
+        assertDoesNotThrow(() -> eventBus.update(smallAuditorium, show));
+        assertNull(changes.poll(200, TimeUnit.MILLISECONDS), "no change is emitted after close");
+    }
 }
\ No newline at end of file
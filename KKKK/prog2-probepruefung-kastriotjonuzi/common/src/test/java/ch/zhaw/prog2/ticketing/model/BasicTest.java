@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.ZonedDateTime;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -126,4 +127,70 @@ class BasicTest {
         assertFalse(entrance.checkTicket(show1, ticket));
     }
 
+    /**
+     * Check that every ticket has its own, stable id
+     */
+    @Test void ticketIds() {
+        Ticket ticket = ticketFactoryOfShow1.createTicket(new Seat('A', 1), guest1).orElseThrow();
+        Ticket otherTicket = ticketFactoryOfShow1.createTicket(new Seat('A', 2), guest1).orElseThrow();
+        assertEquals(ticket.getId(), ticket.getId());
+        assertNotEquals(ticket.getId(), otherTicket.getId());
+        assertTrue(ticket.getId().compareTo(otherTicket.getId()) < 0, "ids are ordered by creation");
+    }
+
+    /**
+     * Check that the price calculator is evaluated once per seat and the prices are kept
+     */
+    @Test void seatPricesCalculatedOnce() throws AuditoriumAlreadyOccupiedException {
+        AtomicInteger calculations = new AtomicInteger();
+        Auditorium smallAuditorium = new Auditorium("Kellerkino", SeatGenerator.rectangle(2, 3));
+        Show show = new Show(smallAuditorium, "Show", ZonedDateTime.now(), (s, seat) -> {
+            calculations.incrementAndGet();
+            return seat.getRow() == 'A' ? 2000 : 1500;
+        });
+        assertEquals(2000, show.getSeatPrice(new Seat('A', 2)));
+        assertEquals(1500, show.getSeatPrice(new Seat('B', 3)));
+        assertEquals(1500, new TicketFactory(show).createTicket(new Seat('B', 1), guest1).orElseThrow().getPrice());
+        assertEquals(6, calculations.get(), "one calculation per seat of the auditorium");
+
+        assertEquals(1500, show.getSeatPrice(new Seat('C', 1)), "seat outside of the auditorium is calculated");
+        assertEquals(7, calculations.get());
+    }
+
+    /**
+     * Check that guests with the same name are interned per auditorium and the tickets can be aggregated by guest id
+     */
+    @Test void guestIds() {
+        GuestRegistry guests = auditorium.getGuestRegistry();
+        Guest sameAsGuest1 = new Guest(guest1.getName());
+        assertEquals(-1, guest1.getId(), "not interned yet");
+        assertSame(guests.intern(guest1), guests.intern(sameAsGuest1));
+        assertSame(guest1, guests.intern(sameAsGuest1));
+        assertEquals(0, guest1.getId(), "ids start with 0 in each auditorium");
+        assertEquals(-1, sameAsGuest1.getId(), "only the interned instance has an id");
+        assertEquals(1, guests.intern(guest2).getId());
+        assertEquals(guest2, guests.guestOf(guest2.getId()));
+        assertEquals(2, guests.size());
+
+        GuestRegistry otherGuests = new Auditorium("Other").getGuestRegistry();
+        Guest guest1InOther = otherGuests.intern(guest1);
+        assertNotSame(guest1, guest1InOther, "a guest belongs to one registry only");
+        assertEquals(guest1, guest1InOther);
+        assertEquals(0, guest1InOther.getId());
+        assertEquals(0, guest1.getId());
+
+        Ticket ticket = ticketFactoryOfShow1.createTicket(new Seat('A', 1), sameAsGuest1).orElseThrow();
+        ticketFactoryOfShow1.createTicket(new Seat('A', 2), guest1);
+        ticketFactoryOfShow1.createTicket(new Seat('A', 3), guest2);
+        assertSame(guest1, ticket.getOwner());
+        assertEquals(guest1.getId(), ticket.getOwnerId());
+
+        int[] ticketCounts = auditorium.ticketCountPerGuest(show1);
+        assertEquals(2, ticketCounts.length, "sized by the guests of the auditorium");
+        assertEquals(2, ticketCounts[guest1.getId()]);
+        assertEquals(1, ticketCounts[guest2.getId()]);
+        assertEquals(36, auditorium.revenuePerGuest(show1)[guest1.getId()]);
+        assertEquals(0, auditorium.ticketCountPerGuest(show2).length);
+    }
+
 }
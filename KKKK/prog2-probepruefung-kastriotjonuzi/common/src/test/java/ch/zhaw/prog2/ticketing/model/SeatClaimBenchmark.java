@@ -0,0 +1,94 @@
+package ch.zhaw.prog2.ticketing.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Contention benchmark for claiming seats:
+ * 1 to N threads book and cancel random seats of the same hot rows of one show.
+ * <p>
+ * Not part of the regular test run, start it with <code>gradle :common:benchmark</code>.
+ */
+@Tag("benchmark")
+class SeatClaimBenchmark {
+    private static final int HOT_ROWS = 2;
+    private static final int SEATS_PER_ROW = 20;
+    private static final Duration WARMUP_TIME = Duration.ofSeconds(1);
+    private static final Duration MEASUREMENT_TIME = Duration.ofSeconds(2);
+
+    @Test
+    void claimSeatsOfHotRows() throws Exception {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        run(maxThreads, WARMUP_TIME);
+
+        System.out.printf("%8s %15s %15s%n", "threads", "attempts/s", "claims/s");
+        int threads = 0;
+        while (threads < maxThreads) {
+            // doubling the threads, but always ending with all processors
+            threads = Math.min(Math.max(1, threads * 2), maxThreads);
+            long[] counts = run(threads, MEASUREMENT_TIME);
+            System.out.printf("%8d %15.0f %15.0f%n", threads,
+                    counts[0] / (double) MEASUREMENT_TIME.toSeconds(),
+                    counts[1] / (double) MEASUREMENT_TIME.toSeconds());
+        }
+    }
+
+    /**
+     * Lets the given number of threads book and cancel seats for the given time.
+     *
+     * @return number of booking attempts at index 0, number of claimed seats at index 1
+     */
+    private long[] run(int numberOfThreads, Duration duration) throws Exception {
+        Auditorium auditorium = new Auditorium("Benchmark Hall", SeatGenerator.rectangle(HOT_ROWS, SEATS_PER_ROW));
+        Show show = new Show(auditorium, "Benchmark", ZonedDateTime.now(), (s, seat) -> 1800);
+        List<Seat> hotSeats = auditorium.getSeats().toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            Guest guest = new Guest("Guest " + i);
+            results.add(executor.submit(() -> {
+                TicketFactory ticketFactory = new TicketFactory(show);
+                long attempts = 0;
+                long claims = 0;
+                while (running.get()) {
+                    Seat seat = hotSeats.get(ThreadLocalRandom.current().nextInt(hotSeats.size()));
+                    Optional<Ticket> ticket = ticketFactory.createTicket(seat, guest);
+                    attempts++;
+                    if (ticket.isPresent()) {
+                        claims++;
+                        auditorium.cancelTicket(ticket.get());
+                    }
+                }
+                return new long[]{attempts, claims};
+            }));
+        }
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+
+        long[] counts = new long[2];
+        for (Future<long[]> result : results) {
+            counts[0] += result.get()[0];
+            counts[1] += result.get()[1];
+        }
+        executor.shutdown();
+
+        assertEquals(0, auditorium.ticketCount(show), "all claimed seats have been released again");
+        assertEquals(hotSeats.size(), auditorium.freeSeatCount(show), "occupancy must match the released seats");
+        return counts;
+    }
+}
@@ -0,0 +1,77 @@
+package ch.zhaw.prog2.ticketing.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the sequential seat generation of {@link SeatGenerator} with a parallel stream
+ * for growing auditoriums. The parallel stream has been removed from SeatGenerator, because it was
+ * never faster; run this on a multi-core machine before adding a parallel path again.
+ * <p>
+ * Not part of the regular test run, start it with <code>gradle :common:benchmark</code>.
+ */
+@Tag("benchmark")
+class SeatGeneratorBenchmark {
+    private static final int[] SEATS_PER_ROW = {4, 40, 400, 2_000, 10_000, 40_000};
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASUREMENT_ITERATIONS = 20;
+
+    @Test
+    void sequentialVersusParallel() {
+        System.out.printf("%10s %15s %15s%n", "seats", "sequential us", "parallel us");
+        int crossover = -1;
+        for (int seatsInRow : SEATS_PER_ROW) {
+            int[] seatsPerRow = new int[SeatGenerator.MAX_ROWS];
+            Arrays.fill(seatsPerRow, seatsInRow);
+            int numberOfSeats = seatsInRow * SeatGenerator.MAX_ROWS;
+
+            assertEquals(SeatGenerator.generateSequential(seatsPerRow, numberOfSeats),
+                    generateParallel(seatsPerRow), "both variants must generate the same seats");
+            long sequentialNanos = measure(() -> SeatGenerator.generateSequential(seatsPerRow, numberOfSeats));
+            long parallelNanos = measure(() -> generateParallel(seatsPerRow));
+            System.out.printf("%10d %15.1f %15.1f%n", numberOfSeats, sequentialNanos / 1000.0, parallelNanos / 1000.0);
+            if (crossover < 0 && parallelNanos < sequentialNanos) {
+                crossover = numberOfSeats;
+            }
+        }
+        System.out.println(crossover < 0
+                ? "parallel generation was never faster"
+                : "parallel generation is faster from about " + crossover + " seats");
+    }
+
+    /**
+     * Generates the rows in parallel and merges them into one set.
+     */
+    private static Set<Seat> generateParallel(int[] seatsPerRow) {
+        return IntStream.range(0, seatsPerRow.length)
+                .parallel()
+                .boxed()
+                .flatMap(rowOffset -> IntStream.rangeClosed(1, seatsPerRow[rowOffset])
+                        .mapToObj(seatNumber -> Seat.of(SeatGenerator.getCharByNumber(rowOffset + 1), seatNumber)))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the fastest of the measured runs in nanoseconds
+     */
+    private long measure(Supplier<Set<Seat>> generator) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            generator.get();
+        }
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            generator.get();
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+}
@@ -2,6 +2,8 @@ package ch.zhaw.prog2.ticketing.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Objects;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SeatTest {
@@ -19,4 +21,32 @@ class SeatTest {
         Seat seat = new Seat('I', 1);
         assertEquals(1, seat.getColumn(), "seat must have set column = 1");
     }
+
+    @Test
+    void ofReturnsSharedInstance() {
+        assertSame(Seat.of('B', 7), Seat.of('B', 7), "cached seats are shared");
+        assertEquals(new Seat('B', 7), Seat.of('B', 7));
+        assertEquals(new Seat('a', 1000), Seat.of('a', 1000), "seats outside the cache are created");
+        assertThrows(IllegalArgumentException.class, () -> Seat.of('A', 0), "column 0 is not allowed");
+    }
+
+    @Test
+    void hashCodeOfDefaultSection() {
+        Seat seat = new Seat('C', 12);
+        assertEquals(Objects.hash('C', 12), seat.hashCode(), "hash code must not change");
+    }
+
+    @Test
+    void seatOfSection() {
+        Seat seat = new Seat(2, 105, 12);
+        assertEquals(2, seat.getSection());
+        assertEquals(105, seat.getRowNumber());
+        assertEquals("S2R105-12", seat.toString());
+        assertNotEquals(new Seat(3, 105, 12), seat);
+        assertNotEquals(new Seat((char) 105, 12), seat, "different section");
+        assertTrue(seat.compareTo(new Seat(3, 1, 1)) < 0, "ordered by section first");
+        assertTrue(seat.compareTo(new Seat(2, 105, 13)) < 0);
+        assertThrows(IllegalArgumentException.class, () -> new Seat(0, 1, 1), "section 0 is not allowed");
+        assertThrows(IllegalArgumentException.class, () -> new Seat(1, 0, 1), "row 0 is not allowed");
+    }
 }
\ No newline at end of file
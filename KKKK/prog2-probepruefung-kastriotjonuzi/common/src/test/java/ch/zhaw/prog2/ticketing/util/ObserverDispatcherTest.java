@@ -0,0 +1,115 @@
+package ch.zhaw.prog2.ticketing.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObserverDispatcherTest {
+
+    @Test
+    void switchingToSynchronousDispatchLosesNoNotification() throws Exception {
+        final int NUMBER_OF_THREADS = 4;
+        final int NOTIFICATIONS_PER_THREAD = 20_000;
+        ObserverDispatcher<Integer> dispatcher = new ObserverDispatcher<>();
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+        dispatcher.addObserver((observable, value) -> received.add(value));
+        AtomicBoolean producing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+            final int offset = i * NOTIFICATIONS_PER_THREAD;
+            results.add(executor.submit(() -> {
+                for (int j = 0; j < NOTIFICATIONS_PER_THREAD; j++) {
+                    dispatcher.notifyObservers(offset + j);
+                }
+            }));
+        }
+        executor.shutdown();
+        Thread switcher = new Thread(() -> {
+            while (producing.get()) {
+                dispatcher.dispatchAsync(16, BackpressurePolicy.BLOCK);
+                dispatcher.dispatchSynchronously();
+            }
+        });
+        switcher.start();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        producing.set(false);
+        switcher.join();
+        assertEquals(NUMBER_OF_THREADS * NOTIFICATIONS_PER_THREAD, received.size(),
+            "every notification is delivered, whether queued before or after the switch");
+    }
+
+    @Test
+    void failingObserverIsReportedToErrorHandler() throws Exception {
+        ObserverDispatcher<String> dispatcher = new ObserverDispatcher<>();
+        List<RuntimeException> failures = new ArrayList<>();
+        List<String> received = new ArrayList<>();
+        dispatcher.setErrorHandler(failures::add);
+        dispatcher.addObserver((observable, value) -> { throw new IllegalStateException(value); });
+        dispatcher.addObserver((observable, value) -> received.add(value));
+        dispatcher.dispatchAsync(4, BackpressurePolicy.BLOCK);
+        dispatcher.notifyObservers("changed");
+        dispatcher.dispatchSynchronously();
+        assertEquals(List.of("changed"), received, "the other observers are still notified");
+        assertEquals(1, failures.size());
+        assertEquals("changed", failures.get(0).getMessage());
+    }
+
+    @Test
+    void observerCanSwitchToSynchronousDispatch() throws Exception {
+        ObserverDispatcher<String> dispatcher = new ObserverDispatcher<>();
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch switched = new CountDownLatch(1);
+        dispatcher.addObserver((observable, value) -> {
+            received.add(value);
+            if (value.equals("switch")) {
+                dispatcher.dispatchSynchronously();
+                switched.countDown();
+            }
+        });
+        dispatcher.dispatchAsync(4, BackpressurePolicy.BLOCK);
+        dispatcher.notifyObservers("switch");
+        assertTrue(switched.await(5, TimeUnit.SECONDS), "the dispatch thread does not wait for itself");
+        assertFalse(dispatcher.isAsync());
+        dispatcher.notifyObservers("sync");
+        assertEquals(List.of("switch", "sync"), received);
+    }
+
+    @Test
+    void interruptedBlockingNotificationIsCounted() throws Exception {
+        ObserverDispatcher<String> dispatcher = new ObserverDispatcher<>();
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.addObserver((observable, value) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(value);
+        });
+        dispatcher.dispatchAsync(1, BackpressurePolicy.BLOCK);
+        dispatcher.notifyObservers("first");
+        Thread.currentThread().interrupt();
+        dispatcher.notifyObservers("lost");
+        assertTrue(Thread.interrupted(), "the interrupt is kept for the caller");
+        assertEquals(1, dispatcher.getDroppedNotifications());
+        release.countDown();
+        dispatcher.dispatchSynchronously();
+        assertEquals(List.of("first"), received);
+    }
+}
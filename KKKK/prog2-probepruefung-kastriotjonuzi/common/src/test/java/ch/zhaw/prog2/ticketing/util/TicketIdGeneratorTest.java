@@ -0,0 +1,50 @@
+package ch.zhaw.prog2.ticketing.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TicketIdGeneratorTest {
+
+    @Test
+    void idsAreOrdered() {
+        UUID previous = TicketIdGenerator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = TicketIdGenerator.nextId();
+            assertTrue(previous.compareTo(next) < 0, "ids must be strictly increasing");
+            previous = next;
+        }
+        assertEquals(7, previous.version(), "ids are UUID version 7");
+        assertEquals(2, previous.variant(), "ids have the RFC 4122 variant");
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        final int NUMBER_OF_THREADS = 4;
+        final int IDS_PER_THREAD = 20_000;
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+            results.add(executor.submit(() -> {
+                for (int j = 0; j < IDS_PER_THREAD; j++) {
+                    ids.add(TicketIdGenerator.nextId());
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+        assertEquals(NUMBER_OF_THREADS * IDS_PER_THREAD, ids.size(), "no id may be generated twice");
+    }
+}
@@ -1,22 +1,41 @@
 package ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking;
 
 import ch.zhaw.prog2.ticketing.model.*;
+import ch.zhaw.prog2.ticketing.util.TicketIdGenerator;
 
+import java.time.Duration;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The available ticket for a given show and a given seat
+ * <p>
+ * The ticket counts how often its lock has been acquired, how often a thread had to wait for it
+ * and how long the lock has been waited for and held, to find hot seats during an on-sale.
  */
 public class AvailableTicket implements Comparable<AvailableTicket> {
     public final UUID id;
     private final TicketFactory ticketFactory;
     private final Seat seat;
     private final Show show;
-    private Lock lock = new ReentrantLock();
+    /**
+     * A {@link ReentrantLock} instead of synchronized, so a virtual thread waiting for the lock
+     * does not pin its carrier thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Duration simulatedHoldTime;
+
+    /**
+     * Lock statistics, only written while holding the lock.
+     */
+    private volatile long lockAcquisitions;
+    private volatile long lockContentions;
+    private volatile long lockWaitNanos;
+    private volatile long lockHoldNanos;
+    private long lockedAt;
 
     /**
      * Creates an available ticket for a given show and a given seat
@@ -24,10 +43,26 @@ public class AvailableTicket implements Comparable<AvailableTicket> {
      * @param seat the seat for which the ticket is being issued
      */
     public AvailableTicket(TicketFactory ticketFactory, Seat seat) {
-        id = UUID.randomUUID();
+        this(ticketFactory, seat, Duration.ZERO);
+    }
+
+    /**
+     * Creates an available ticket, which simulates slow processing by keeping its lock for the given time
+     * after it has been acquired, e.g. to provoke conflicts between bookings in tests and load tests.
+     *
+     * @param ticketFactory the ticket factory of the show for which the ticket is being issued
+     * @param seat the seat for which the ticket is being issued
+     * @param simulatedHoldTime time to wait after acquiring the lock, must not be negative
+     */
+    public AvailableTicket(TicketFactory ticketFactory, Seat seat, Duration simulatedHoldTime) {
+        id = TicketIdGenerator.nextId();
         this.ticketFactory = Objects.requireNonNull(ticketFactory);
         this.show = Objects.requireNonNull(ticketFactory.getShow());
         this.seat = Objects.requireNonNull(seat);
+        this.simulatedHoldTime = Objects.requireNonNull(simulatedHoldTime);
+        if (simulatedHoldTime.isNegative()) {
+            throw new IllegalArgumentException("simulatedHoldTime must not be negative");
+        }
     }
 
     public Seat getSeat(){
@@ -42,11 +77,31 @@ public class AvailableTicket implements Comparable<AvailableTicket> {
      * lock the available ticket to prevent mutual access
      */
     public void lock(){
-        lock.lock();
+        long waitStart = System.nanoTime();
+        boolean contended = !lock.tryLock();
+        if (contended) {
+            lock.lock();
+        }
+        if (lock.getHoldCount() > 1) {
+            // locked again by the same thread, which already holds the lock
+            return;
+        }
+        lockedAt = System.nanoTime();
+        lockAcquisitions++;
+        if (contended) {
+            lockContentions++;
+            lockWaitNanos += lockedAt - waitStart;
+        }
+        if (!simulatedHoldTime.isZero()) {
+            simulateHold();
+        }
+    }
+
+    private void simulateHold() {
         try {
-            Thread.sleep(200);
+            TimeUnit.NANOSECONDS.sleep(simulatedHoldTime.toNanos());
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -54,9 +109,40 @@ public class AvailableTicket implements Comparable<AvailableTicket> {
      * unlock the available ticket
      */
     public void unlock(){
+        if (lock.getHoldCount() == 1) {
+            lockHoldNanos += System.nanoTime() - lockedAt;
+        }
         lock.unlock();
     }
 
+    /**
+     * @return number of times the lock has been acquired, not counting reentrant locking
+     */
+    public long getLockAcquisitions() {
+        return lockAcquisitions;
+    }
+
+    /**
+     * @return number of times a thread had to wait for the lock, because it was held by another thread
+     */
+    public long getLockContentions() {
+        return lockContentions;
+    }
+
+    /**
+     * @return total time threads have waited for the lock
+     */
+    public Duration getLockWaitTime() {
+        return Duration.ofNanos(lockWaitNanos);
+    }
+
+    /**
+     * @return total time the lock has been held, including the simulated hold time
+     */
+    public Duration getLockHoldTime() {
+        return Duration.ofNanos(lockHoldNanos);
+    }
+
     /**
      * Issues the ticket
      *
@@ -86,6 +172,10 @@ public class AvailableTicket implements Comparable<AvailableTicket> {
         return String.format("%s:%s", show.toString(), seat.toString());
     }
 
+    /**
+     * Orders the available tickets by their id, which are unique and increase with the time of creation.
+     * Used as global lock order by the {@link TicketBookingService}.
+     */
     @Override
     public int compareTo(AvailableTicket o) {
         Objects.requireNonNull(o, "never compare to null");
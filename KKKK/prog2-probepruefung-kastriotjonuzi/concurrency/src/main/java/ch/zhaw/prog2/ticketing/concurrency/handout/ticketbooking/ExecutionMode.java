@@ -0,0 +1,52 @@
+package ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Kind of threads a {@link TicketBookingService} processes its bookings with.
+ */
+public enum ExecutionMode {
+    /**
+     * A fixed number of reused platform threads, bookings wait in a queue until a thread is free.
+     */
+    FIXED_THREAD_POOL {
+        @Override
+        ExecutorService createExecutor(int parallelism) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "ticket-booking-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    },
+    /**
+     * A fork/join pool whose idle threads steal queued bookings from busy threads.
+     * Suited for many short bookings which rarely block.
+     */
+    WORK_STEALING_POOL {
+        @Override
+        ExecutorService createExecutor(int parallelism) {
+            return Executors.newWorkStealingPool(parallelism);
+        }
+    },
+    /**
+     * A new virtual thread for every booking. A booking waiting for a lock or sleeping releases its carrier
+     * thread, so a huge number of mostly blocked bookings, e.g. during an on-sale, can be processed at once.
+     * The parallelism is enforced by the {@link TicketBookingService}, not by the executor.
+     */
+    VIRTUAL_THREADS {
+        @Override
+        ExecutorService createExecutor(int parallelism) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+    };
+
+    /**
+     * @param parallelism maximum number of bookings processed at the same time, must be >= 1
+     * @return a new executor, to be shut down by the caller
+     */
+    abstract ExecutorService createExecutor(int parallelism);
+}
@@ -2,45 +2,121 @@ package ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking;
 import ch.zhaw.prog2.ticketing.model.Ticket;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * This class represents the booking system for the available tickets.
  * Multiple bookings can be processed concurrent with the method {@link #book(List) book}
+ * <p>
+ * The bookings are processed by an {@link ExecutorService}, which reuses its threads and limits
+ * the number of bookings processed at the same time, see {@link ExecutionMode}.
+ * Close the service to shut down the executor it created.
+ * <p>
+ * The service only blocks on {@link Lock locks}, never on monitors, so bookings processed by
+ * {@link ExecutionMode#VIRTUAL_THREADS virtual threads} do not pin their carrier threads.
+ * The available tickets of a booking are always locked in their natural order
+ * (see {@link AvailableTicket#compareTo(AvailableTicket)}), so bookings requesting overlapping tickets
+ * in a different order can not deadlock.
  */
-public class TicketBookingService {
-    private List<AvailableTicket> availableTickets;
+public class TicketBookingService implements AutoCloseable {
+    private final Collection<AvailableTicket> availableTickets;
+    private final Lock availableTicketsLock = new ReentrantLock();
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    /**
+     * Limits the bookings processed at the same time, if the executor does not limit its threads.
+     */
+    private final Semaphore bookingPermits;
 
     /**
-     * Creates a new ticket booking service instance
+     * Creates a new ticket booking service instance using a fixed thread pool with one thread per processor.
      *
      * @param availableTickets the current available tickets for all shows
      */
-    public TicketBookingService(List<AvailableTicket> availableTickets){
-        this.availableTickets = availableTickets;
+    public TicketBookingService(Collection<AvailableTicket> availableTickets){
+        this(availableTickets, ExecutionMode.FIXED_THREAD_POOL, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new ticket booking service instance with its own executor.
+     *
+     * @param availableTickets the current available tickets for all shows, e.g. a concurrent set
+     *                         for a large number of tickets
+     * @param executionMode    the kind of threads processing the bookings
+     * @param maxConcurrentBookings maximum number of bookings processed at the same time, must be >= 1
+     */
+    public TicketBookingService(Collection<AvailableTicket> availableTickets, ExecutionMode executionMode, int maxConcurrentBookings){
+        if (maxConcurrentBookings < 1) {
+            throw new IllegalArgumentException("maxConcurrentBookings must be >= 1");
+        }
+        this.availableTickets = Objects.requireNonNull(availableTickets);
+        this.executor = executionMode.createExecutor(maxConcurrentBookings);
+        this.ownsExecutor = true;
+        this.bookingPermits = executionMode == ExecutionMode.VIRTUAL_THREADS ? new Semaphore(maxConcurrentBookings) : null;
     }
 
     /**
-     * Concurrent processing of a collection of bookings
+     * Creates a new ticket booking service instance processing the bookings with the given executor.
+     * The executor is not shut down when the service is closed.
+     *
+     * @param availableTickets the current available tickets for all shows
+     * @param executor         the executor processing the bookings
+     */
+    public TicketBookingService(Collection<AvailableTicket> availableTickets, ExecutorService executor){
+        this.availableTickets = Objects.requireNonNull(availableTickets);
+        this.executor = Objects.requireNonNull(executor);
+        this.ownsExecutor = false;
+        this.bookingPermits = null;
+    }
+
+    /**
+     * Concurrent processing of a collection of bookings. Waits until all bookings are processed.
      *
      * @param bookings the bookings to be fulfilled
      * @return all issued tickets during this processing
      */
     public List<Ticket> book(List<Booking> bookings) throws InterruptedException, ExecutionException {
+        List<CompletableFuture<List<Ticket>>> results = bookings.stream().map(this::bookAsync).toList();
         List<Ticket> issuedTickets = new ArrayList<>();
-
-        for(Booking booking : bookings) {
-            new Thread(new BookingRequest(booking)).start();
+        for (CompletableFuture<List<Ticket>> result : results) {
+            issuedTickets.addAll(result.get());
         }
-
         return issuedTickets;
     }
 
-    private class BookingRequest implements Runnable {
+    /**
+     * Processes the booking in the background.
+     *
+     * @param booking the booking to be fulfilled
+     * @return the tickets issued for the booking, an empty list if the booking has been rejected
+     */
+    public CompletableFuture<List<Ticket>> bookAsync(Booking booking) {
+        return CompletableFuture.supplyAsync(new BookingRequest(Objects.requireNonNull(booking)), executor);
+    }
+
+    /**
+     * Shuts down the executor created by this service. Bookings already submitted are still processed.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private class BookingRequest implements Supplier<List<Ticket>> {
         private final Booking booking;
-        List<Ticket> issuedTickets = new ArrayList<>();
+        private final List<Ticket> issuedTickets = new ArrayList<>();
 
         /**
          * Creates a booking request for a certain show and seat(s)
@@ -52,12 +128,26 @@ public class TicketBookingService {
         }
 
         @Override
-        public void run() {
+        public List<Ticket> get() {
+            if (bookingPermits == null) {
+                return process();
+            }
+            bookingPermits.acquireUninterruptibly();
+            try {
+                return process();
+            } finally {
+                bookingPermits.release();
+            }
+        }
+
+        private List<Ticket> process() {
             boolean bookingRequestFullfilled = true;
             List<AvailableTicket> ticketsToBook = booking.getTicketsToBook();
+            // all bookings acquire the locks in the same global order to prevent deadlocks
+            List<AvailableTicket> ticketsInLockOrder = ticketsToBook.stream().sorted().toList();
             try {
                 // lock available tickets of the booking to ensure mutual exclusive access
-                for (AvailableTicket availableTicket : ticketsToBook) {
+                for (AvailableTicket availableTicket : ticketsInLockOrder) {
                     availableTicket.lock();
                 }
                 // try to execute the booking and issue the ticket, if ticket can not be issued cancel booking
@@ -78,10 +168,11 @@ public class TicketBookingService {
                     reject();
                 }
                 // unlock all resources
-                for (AvailableTicket availableTicket : ticketsToBook) {
+                for (AvailableTicket availableTicket : ticketsInLockOrder) {
                     availableTicket.unlock();
                 }
             }
+            return issuedTickets;
         }
 
         /**
@@ -92,7 +183,13 @@ public class TicketBookingService {
          */
         private void confirm() {
             booking.confirmBooking(issuedTickets);
-            availableTickets.removeAll(booking.getTicketsToBook());
+            // the collection is shared by all booking requests
+            availableTicketsLock.lock();
+            try {
+                availableTickets.removeAll(booking.getTicketsToBook());
+            } finally {
+                availableTicketsLock.unlock();
+            }
             System.out.println("Successfully booked " + issuedTickets);
         }
 
@@ -0,0 +1,70 @@
+package ch.zhaw.prog2.ticketing.concurrency.ticketbooking.handout;
+
+import ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking.AvailableTicket;
+import ch.zhaw.prog2.ticketing.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailableTicketTest {
+    TicketFactory ticketFactory;
+
+    @BeforeEach
+    void setup() throws AuditoriumAlreadyOccupiedException {
+        Auditorium tinyHall = new Auditorium("The Tiny Hall", SeatGenerator.rectangle(2, 2));
+        ticketFactory = new TicketFactory(new Show(tinyHall, "Poetry Slam", ZonedDateTime.now(), (show, seat) -> 1800));
+    }
+
+    @Test
+    void uncontendedLocking() {
+        AvailableTicket availableTicket = new AvailableTicket(ticketFactory, new Seat('A', 1));
+        availableTicket.lock();
+        availableTicket.lock();
+        availableTicket.unlock();
+        availableTicket.unlock();
+        availableTicket.lock();
+        availableTicket.unlock();
+
+        assertEquals(2, availableTicket.getLockAcquisitions(), "reentrant locking is not counted");
+        assertEquals(0, availableTicket.getLockContentions());
+        assertEquals(Duration.ZERO, availableTicket.getLockWaitTime());
+    }
+
+    @Test
+    void contendedLocking() throws InterruptedException {
+        AvailableTicket availableTicket = new AvailableTicket(ticketFactory, new Seat('A', 1));
+        availableTicket.lock();
+        Thread competitor = new Thread(() -> {
+            availableTicket.lock();
+            availableTicket.unlock();
+        });
+        competitor.start();
+        while (competitor.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        availableTicket.unlock();
+        competitor.join();
+
+        assertEquals(2, availableTicket.getLockAcquisitions());
+        assertEquals(1, availableTicket.getLockContentions(), "the competitor had to wait");
+        assertTrue(availableTicket.getLockWaitTime().compareTo(Duration.ZERO) > 0);
+        assertTrue(availableTicket.getLockHoldTime().compareTo(availableTicket.getLockWaitTime()) >= 0,
+                "the lock has been held at least as long as the competitor waited");
+    }
+
+    @Test
+    void simulatedHoldTime() {
+        Duration simulatedHoldTime = Duration.ofMillis(20);
+        AvailableTicket availableTicket = new AvailableTicket(ticketFactory, new Seat('A', 1), simulatedHoldTime);
+        availableTicket.lock();
+        availableTicket.unlock();
+
+        assertTrue(availableTicket.getLockHoldTime().compareTo(simulatedHoldTime) >= 0);
+        assertThrows(IllegalArgumentException.class,
+                () -> new AvailableTicket(ticketFactory, new Seat('A', 1), Duration.ofMillis(-1)));
+    }
+}
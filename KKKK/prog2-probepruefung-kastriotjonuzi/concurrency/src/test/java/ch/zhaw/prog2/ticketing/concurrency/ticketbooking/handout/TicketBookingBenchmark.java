@@ -0,0 +1,75 @@
+package ch.zhaw.prog2.ticketing.concurrency.ticketbooking.handout;
+
+import ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking.AvailableTicket;
+import ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking.Booking;
+import ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking.ExecutionMode;
+import ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking.TicketBookingService;
+import ch.zhaw.prog2.ticketing.model.*;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load test of an on-sale: all seats of a venue are requested at the same time, one booking per seat.
+ * Compares a pool of platform threads with one virtual thread per booking.
+ * <p>
+ * Not part of the regular test run, start it with <code>gradle :concurrency:benchmark</code>.
+ * Every booking holds its lock for a simulated processing time (e.g. a payment), so the bookings
+ * are mostly blocked. The platform threads therefore need about a minute for a million bookings.
+ */
+@Tag("benchmark")
+class TicketBookingBenchmark {
+    private static final int[] SIMULTANEOUS_BOOKINGS = {10_000, 100_000, 1_000_000};
+    private static final int PLATFORM_THREADS = 1_000;
+    private static final int SEATS_PER_SECTION = 10_000;
+    private static final Duration SIMULATED_HOLD_TIME = Duration.ofMillis(50);
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        System.out.printf("%10s %15s %15s%n", "bookings", "platform ms", "virtual ms");
+        for (int numberOfBookings : SIMULTANEOUS_BOOKINGS) {
+            long platformMillis = measure(numberOfBookings, ExecutionMode.FIXED_THREAD_POOL, PLATFORM_THREADS);
+            long virtualMillis = measure(numberOfBookings, ExecutionMode.VIRTUAL_THREADS, numberOfBookings);
+            System.out.printf("%10d %15d %15d%n", numberOfBookings, platformMillis, virtualMillis);
+        }
+    }
+
+    /**
+     * @return the time in milliseconds until all bookings have been processed
+     */
+    private long measure(int numberOfBookings, ExecutionMode executionMode, int maxConcurrentBookings) throws Exception {
+        Auditorium venue = new Auditorium("Stadion",
+                VenueGenerator.rectangle(numberOfBookings / SEATS_PER_SECTION, 100, SEATS_PER_SECTION / 100));
+        Show show = new Show(venue, "On-Sale", ZonedDateTime.now(), (s, seat) -> 5000);
+        TicketFactory ticketFactory = new TicketFactory(show);
+        Set<AvailableTicket> availableTickets = ConcurrentHashMap.newKeySet();
+        venue.getSeats().forEach(seat -> availableTickets.add(new AvailableTicket(ticketFactory, seat, SIMULATED_HOLD_TIME)));
+        List<AvailableTicket> ticketsToBook = List.copyOf(availableTickets);
+        List<Booking> bookings = IntStream.range(0, numberOfBookings)
+                .mapToObj(i -> new Booking(List.of(ticketsToBook.get(i)), new Guest("Guest " + i % 1000)))
+                .toList();
+
+        PrintStream console = System.out;
+        // the service reports every single booking
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try (TicketBookingService service = new TicketBookingService(availableTickets, executionMode, maxConcurrentBookings)) {
+            long start = System.nanoTime();
+            List<Ticket> issuedTickets = service.book(bookings);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            assertEquals(numberOfBookings, issuedTickets.size(), "every seat has been requested once");
+            return millis;
+        } finally {
+            System.setOut(console);
+        }
+    }
+}
@@ -2,16 +2,25 @@ package ch.zhaw.prog2.ticketing.concurrency.ticketbooking.handout;
 
 import ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking.AvailableTicket;
 import ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking.Booking;
+import ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking.ExecutionMode;
 import ch.zhaw.prog2.ticketing.concurrency.handout.ticketbooking.TicketBookingService;
 import ch.zhaw.prog2.ticketing.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
@@ -24,6 +33,7 @@ import static org.mockito.Mockito.when;
 public class TicketBookingServiceTest {
     private static final int NUMBER_OF_ROWS_TINY_HALL_AUDITORIUM = 5;
     private static final int NUMBER_OF_SEATS_PER_ROW_TINY_HALL_AUDITORIUM = 3;
+    private static final Duration SIMULATED_HOLD_TIME = Duration.ofMillis(200);
 
     Auditorium tinyHall;
     Show poetrySlam;
@@ -39,13 +49,15 @@ public class TicketBookingServiceTest {
         when(poetrySlam.getAuditorium()).thenReturn(tinyHall);
         ticketFactoryPoetrySlam = new TicketFactory(poetrySlam);
 
-        availableTickets = generateAvailableTickets(ticketFactoryPoetrySlam);
+        availableTickets = generateAvailableTickets(ticketFactoryPoetrySlam, Duration.ZERO);
         ticketBookingService = new TicketBookingService(availableTickets);
     }
 
     @Test
     void provokeDeadlockSituation() throws InterruptedException, ExecutionException {
-        // setup
+        // setup: slow tickets, so the bookings hold their first lock when requesting the second
+        availableTickets = generateAvailableTickets(ticketFactoryPoetrySlam, SIMULATED_HOLD_TIME);
+        ticketBookingService = new TicketBookingService(availableTickets);
         Optional<AvailableTicket> a1 = getAvailableTicketForSeat(poetrySlam, 'A', 1);
         Optional<AvailableTicket> a2 = getAvailableTicketForSeat(poetrySlam, 'A', 2);
         Optional<AvailableTicket> b3 = getAvailableTicketForSeat(poetrySlam, 'B', 3);
@@ -94,15 +106,66 @@ public class TicketBookingServiceTest {
         assertEquals(NUMBER_OF_REQUESTED_TICKETS,issuedTickets.size(), "Booking must return with " + NUMBER_OF_REQUESTED_TICKETS + " issued tickets.");
     }
 
+    @Test
+    void bookingsAreProcessedByLimitedNumberOfThreads() throws InterruptedException, ExecutionException {
+        final int MAX_CONCURRENT_BOOKINGS = 4;
+        List<Booking> bookings = List.copyOf(availableTickets).stream()
+                .map(availableTicket -> new Booking(List.of(availableTicket), new Guest("Guest")))
+                .toList();
+        AtomicInteger createdThreads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(MAX_CONCURRENT_BOOKINGS, runnable -> {
+            createdThreads.incrementAndGet();
+            return new Thread(runnable);
+        });
+        try (TicketBookingService service = new TicketBookingService(availableTickets, executor)) {
+            List<CompletableFuture<List<Ticket>>> results = bookings.stream().map(service::bookAsync).toList();
+            for (CompletableFuture<List<Ticket>> result : results) {
+                assertEquals(1, result.get().size(), "every booking gets its ticket");
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(bookings.stream().allMatch(Booking::isConfirmed));
+        assertTrue(availableTickets.isEmpty(), "all tickets have been booked");
+        assertTrue(createdThreads.get() <= MAX_CONCURRENT_BOOKINGS, "threads are reused");
+    }
+
+    @Test
+    void noDeadlockUnderHeavyOverlap() {
+        final int NUMBER_OF_BOOKINGS = 2_000;
+        final int TICKETS_PER_BOOKING = 3;
+        Random random = new Random(42);
+        List<AvailableTicket> allTickets = List.copyOf(availableTickets);
+        // every booking requests random, mostly overlapping tickets in random order
+        List<Booking> bookings = IntStream.range(0, NUMBER_OF_BOOKINGS)
+                .mapToObj(i -> new Booking(random.ints(0, allTickets.size()).distinct().limit(TICKETS_PER_BOOKING)
+                        .mapToObj(allTickets::get).toList(), new Guest("Guest " + i)))
+                .toList();
+
+        try (TicketBookingService service = new TicketBookingService(availableTickets, ExecutionMode.FIXED_THREAD_POOL, 8)) {
+            List<Ticket> issuedTickets = assertTimeoutPreemptively(Duration.ofSeconds(60), () -> service.book(bookings),
+                    "The bookings were not processed within the given time. There is a deadlock.");
+
+            assertTrue(bookings.stream().allMatch(Booking::isProcessed));
+            List<Seat> bookedSeats = issuedTickets.stream().map(Ticket::getSeat).toList();
+            assertEquals(bookedSeats.size(), Set.copyOf(bookedSeats).size(), "no seat may be booked twice");
+            assertEquals(TICKETS_PER_BOOKING * bookings.stream().filter(Booking::isConfirmed).count(), issuedTickets.size(),
+                    "only confirmed bookings keep their tickets");
+            assertEquals(issuedTickets.size(), tinyHall.getRegisteredTickets().size(), "tickets of rejected bookings are cancelled");
+        }
+    }
+
     /**
      * Helper Method to create available Tickets for a show
      *
      * @param ticketFactory the ticket factory for this show - The ticket factory belongs to exactly one show
+     * @param simulatedHoldTime time each ticket keeps its lock after it has been acquired
      * @return all available tickets fot the show of the given ticket factory
      */
-    private List<AvailableTicket> generateAvailableTickets(TicketFactory ticketFactory){
+    private List<AvailableTicket> generateAvailableTickets(TicketFactory ticketFactory, Duration simulatedHoldTime){
         return ticketFactory.getShow().getAuditorium().getSeats().map(seat -> {
-                    return new AvailableTicket(ticketFactory, seat);
+                    return new AvailableTicket(ticketFactory, seat, simulatedHoldTime);
                 })
                 .collect(Collectors.toList());
     }
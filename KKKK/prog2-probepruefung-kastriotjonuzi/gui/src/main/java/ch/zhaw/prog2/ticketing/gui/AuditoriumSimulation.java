@@ -3,8 +3,8 @@ package ch.zhaw.prog2.ticketing.gui;
 import ch.zhaw.prog2.ticketing.model.*;
 import javafx.concurrent.ScheduledService;
 import javafx.concurrent.Task;
-import javafx.util.Duration;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
@@ -38,6 +38,8 @@ public class AuditoriumSimulation {
     private static final Random random = new Random(System.currentTimeMillis());
     // Default ZoneId used for the Show playtimes
     private static final ZoneId zurichZoneId = ZoneId.of("Europe/Zurich");
+    // Duration of every show, fits between the closest ShowTimes (PRIMETIME and LATENIGHT)
+    private static final Duration showDuration = Duration.ofMinutes(150);
     // PriceCalculatorFunction for standard tickets
     private static final PriceCalculatorFunction normalPriceCalculator =
             (show, seat) -> "ABC".indexOf(seat.getRow()) >= 0 ? 1850 : 925;
@@ -174,6 +176,7 @@ public class AuditoriumSimulation {
                     auditorium,
                     showTitles[random.nextInt(showTitles.length-1)],
                     ZonedDateTime.of(showDate, showTime.getTime(), zurichZoneId),
+                    showDuration,
                     (showTime == ShowTime.PRIMETIME)? premiumPriceCalculator : normalPriceCalculator
             ));
         } catch (AuditoriumAlreadyOccupiedException e) {
@@ -185,19 +188,25 @@ public class AuditoriumSimulation {
 
     /**
      * Generates a set of random ticket for the given show.
-     * For each row {@link #ticketsPerRow} tickets will be booked.
+     * For each row {@link #ticketsPerRow} tickets will be booked at once for a random guest.
+     * Half of the tickets will be payed.
      * @param show show to book tickets for
      */
     private void generateTicketsForShow(Show show) {
         TicketFactory ticketFactory = new TicketFactory(show);
-        IntStream.range(1, rows).map(row -> 'A' + row - 1)
-                .forEach(rowChar -> random.ints(ticketsPerRow, 1, seatsPerRow)
-                            .forEach(seatInRow -> createTicket(ticketFactory,
-                                    new Seat((char) rowChar, seatInRow),
-                                    guests[random.nextInt(guests.length-1)],
-                                    random.nextBoolean())
-                            )
-                );
+        IntStream.rangeClosed(1, rows).map(row -> 'A' + row - 1)
+                .forEach(rowChar -> {
+                    List<Seat> seats = random.ints(1, seatsPerRow + 1).distinct()
+                            .limit(Math.min(ticketsPerRow, seatsPerRow))
+                            .mapToObj(seatInRow -> Seat.of((char) rowChar, seatInRow))
+                            .toList();
+                    ticketFactory.createTickets(seats, guests[random.nextInt(guests.length-1)])
+                            .ifPresentOrElse(tickets -> {
+                                tickets.stream().filter(ticket -> random.nextBoolean()).forEach(Ticket::pay);
+                                System.out.print("Booked: ");
+                            }, () -> System.out.print("Invalid: "));
+                    System.out.printf("%tc - %s, %s%n", show.getDateTime(), show.getName(), seats);
+                });
     }
 
 
@@ -226,9 +235,9 @@ public class AuditoriumSimulation {
      * @return randam seat in the range of {@link #rows} and {@link #seatsPerRow} of the auditorium
      */
     private Seat randomSeat() {
-        char row = (char)('A' + random.nextInt(0, rows-1));
-        int seatInRow = random.nextInt(1, seatsPerRow);
-        return new Seat(row, seatInRow);
+        char row = (char)('A' + random.nextInt(0, rows));
+        int seatInRow = random.nextInt(1, seatsPerRow + 1);
+        return Seat.of(row, seatInRow);
     }
 
     /**
@@ -310,9 +319,9 @@ public class AuditoriumSimulation {
      * @param intervallSeconds intervall in seconds to send ticket book/cancel requests to each show.
      */
     public void startSimulation(int intervallSeconds) {
-        ticketBookingService.setPeriod(Duration.seconds(intervallSeconds));
+        ticketBookingService.setPeriod(javafx.util.Duration.seconds(intervallSeconds));
         ticketBookingService.start();
-        ticketCancelService.setPeriod(Duration.seconds(intervallSeconds*2));
+        ticketCancelService.setPeriod(javafx.util.Duration.seconds(intervallSeconds*2));
         ticketCancelService.start();
         System.out.println("Simulation started with intervall " + intervallSeconds + "s");
     }
@@ -76,9 +76,8 @@ public class TicketMonitorController {
     public void setAuditorium(Auditorium auditorium) {
         this.auditorium = auditorium;
         this.auditoriumNameLabel.setText(auditorium.getName());
-        // load list of shows from auditorium and populate the combo box drop down
-        List<Show> shows = auditorium.getShows().stream().sorted(Comparator.comparing(Show::getDateTime)).toList();
-        showComboBox.getItems().setAll(shows);
+        // load list of shows from auditorium (ordered by date) and populate the combo box drop down
+        showComboBox.getItems().setAll(auditorium.getShows());
         // select first show in the combo box and populate the TicketTableView.
         if (!showComboBox.getItems().isEmpty()) {
             this.selectedShow = showComboBox.getItems().get(0);